@@ -1,9 +1,11 @@
 package ru.practicum.shareit;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.exceptions.ValidationException;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @UtilityClass
 public class Checks {
@@ -18,4 +20,10 @@ public class Checks {
             throw new ValidationException("Неправильное время");
         }
     }
+
+    public static void distinctBookings(List<BookingDecisionDto> decisions) {
+        if (decisions.stream().map(BookingDecisionDto::getBookingId).distinct().count() < decisions.size()) {
+            throw new ValidationException("Бронь указана в пакете несколько раз");
+        }
+    }
 }
@@ -6,8 +6,13 @@ public class PathConstants {
     public static final String ITEMS = "/items";
     public static final String ITEMS_COMMENTS = "/comment";
     public static final String ITEMS_SEARCH = "/search";
+    public static final String ITEMS_SUGGEST = "/suggest";
+    public static final String ITEMS_IMPORT = "/import";
     public static final String BOOKINGS = "/bookings";
     public static final String BOOKINGS_OWNER = "/owner";
+    public static final String BOOKINGS_BATCH = "/batch";
+    public static final String BOOKINGS_OWNER_STREAM = "/owner/stream";
     public static final String REQUESTS = "/requests";
     public static final String ALL = "/all";
+    public static final String REQUESTS_MATCHES = "/matches";
 }
\ No newline at end of file
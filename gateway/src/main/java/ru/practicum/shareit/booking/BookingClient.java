@@ -2,51 +2,67 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.PathConstants;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.UpstreamTransport;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BookingClient extends BaseClient {
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.BOOKINGS))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         UpstreamTransport transport, ResponseCache cache) {
+        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.BOOKINGS)), transport, cache);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size, String after) {
+        return get(pageQuery("", after), userId, pageParameters(state, from, size, after));
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getOwnerBookings(long userId, BookingState state, Integer from, Integer size, String after) {
+        return get(pageQuery("/owner", after), userId, pageParameters(state, from, size, after));
+    }
+
+    static String pageQuery(String path, String after) {
+        if (after == null) {
+            return path + "?state={state}&from={from}&size={size}";
+        }
+        return path + "?state={state}&size={size}&after={after}";
+    }
+
+    static Map<String, Object> pageParameters(BookingState state, Integer from, Integer size, String after) {
+        if (after == null) {
+            return Map.of(
+                    "state", state.name(),
+                    "from", from,
+                    "size", size
+            );
+        }
+        return Map.of(
                 "state", state.name(),
-                "from", from,
-                "size", size
+                "size", size,
+                "after", after
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
 
 
     public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+        return purgeOnSuccess(post("", userId, requestDto), () -> cache.purgeItem(requestDto.getItemId()));
     }
 
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
@@ -55,7 +71,20 @@ public class BookingClient extends BaseClient {
 
     public ResponseEntity<Object> approve(long userId, Long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
-        return patch("/" + bookingId + "?approved={approved}", userId,
-                parameters, null);
+        return purgeOnSuccess(patch("/" + bookingId + "?approved={approved}", userId, parameters, null),
+                () -> cache.purge(ResponseCache.Route.ITEM));
+    }
+
+    public ResponseEntity<Object> decideAll(long userId, List<BookingDecisionDto> decisions) {
+        return purgeOnSuccess(patch(PathConstants.BOOKINGS_BATCH, userId, decisions),
+                () -> cache.purge(ResponseCache.Route.ITEM));
+    }
+
+    public StreamingResponseBody streamOwnerBookings(long userId, String lastEventId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (lastEventId != null) {
+            headers.set("Last-Event-ID", lastEventId);
+        }
+        return stream(PathConstants.BOOKINGS_OWNER_STREAM, userId, MediaType.TEXT_EVENT_STREAM, headers);
     }
 }
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ReactiveTransport;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    public ReactiveBookingClient(ReactiveTransport transport, ResponseCache cache) {
+        super(transport, cache, PathConstants.BOOKINGS);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(long userId, BookingState state, Integer from,
+                                                              Integer size, String after) {
+        return get(BookingClient.pageQuery("", after), userId, BookingClient.pageParameters(state, from, size, after));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getOwnerBookings(long userId, BookingState state, Integer from,
+                                                                   Integer size, String after) {
+        return get(BookingClient.pageQuery("/owner", after), userId,
+                BookingClient.pageParameters(state, from, size, after));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(long userId, BookItemRequestDto requestDto) {
+        return purgeOnSuccess(post("", userId, requestDto), () -> cache.purgeItem(requestDto.getItemId()));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(long userId, Long bookingId) {
+        return get("/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approve(long userId, Long bookingId, boolean approved) {
+        Map<String, Object> parameters = Map.of("approved", approved);
+        return purgeOnSuccess(patch("/" + bookingId + "?approved={approved}", userId, parameters, null),
+                () -> cache.purge(ResponseCache.Route.ITEM));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> decideAll(long userId, List<BookingDecisionDto> decisions) {
+        return purgeOnSuccess(patch(PathConstants.BOOKINGS_BATCH, userId, decisions),
+                () -> cache.purge(ResponseCache.Route.ITEM));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamOwnerBookings(long userId, String lastEventId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (lastEventId != null) {
+            headers.set("Last-Event-ID", lastEventId);
+        }
+        return stream(PathConstants.BOOKINGS_OWNER_STREAM, userId, MediaType.TEXT_EVENT_STREAM, headers);
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.Checks;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * The reactive runtime's {@link BookingController}.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(PathConstants.BOOKINGS)
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveBookingController {
+    private final ReactiveBookingClient bookingClient;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                              @RequestParam(name = "after", required = false) String after) {
+        Checks.pageParams(from, size);
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.getBookings(userId, state, from, size, after);
+    }
+
+    @GetMapping(PathConstants.BOOKINGS_OWNER)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                   @RequestParam(name = "after", required = false) String after) {
+        Checks.pageParams(from, size);
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get owner booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.getOwnerBookings(userId, state, from, size, after);
+    }
+
+    @GetMapping(path = PathConstants.BOOKINGS_OWNER_STREAM, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Subscribe to owner bookings, userId={}, lastEventId={}", userId, lastEventId);
+        return bookingClient.streamOwnerBookings(userId, lastEventId);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                           @RequestBody @Valid BookItemRequestDto requestDto) {
+        Checks.dateTime(requestDto.getStart(), requestDto.getEnd());
+        log.info("Creating booking {}, userId={}", requestDto, userId);
+        return bookingClient.bookItem(userId, requestDto);
+    }
+
+    @GetMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                             @PathVariable Long id) {
+        log.info("Get booking {}, userId={}", id, userId);
+        return bookingClient.getBooking(userId, id);
+    }
+
+    @PatchMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approve(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @PathVariable Long id,
+                                                          @RequestParam(name = "approved") boolean approved) {
+        log.info("Approve booking{}, userId={}", id, userId);
+        return bookingClient.approve(userId, id, approved);
+    }
+
+    @PatchMapping(PathConstants.BOOKINGS_BATCH)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> decideAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                            @RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingDecisionDto> decisions) {
+        log.info("Decide {} bookings, userId={}", decisions.size(), userId);
+        Checks.distinctBookings(decisions);
+        return bookingClient.decideAll(userId, decisions);
+    }
+}
@@ -8,7 +8,8 @@ public enum BookingState {
     FUTURE,
     PAST,
     REJECTED,
-    WAITING;
+    WAITING,
+    CANCELED;
 
     public static Optional<BookingState> from(String stringState) {
         for (BookingState state : values()) {
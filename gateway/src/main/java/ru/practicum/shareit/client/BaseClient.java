@@ -1,18 +1,65 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseClient {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    /**
+     * Headers of a server response that describe its connection to the gateway rather than the response.
+     */
+    static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+
     protected final RestTemplate rest;
+    protected final RestTemplate streamingRest;
+    protected final ResponseCache cache;
+    private final BufferPool buffers;
+    private final boolean passthrough;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, rest);
+    }
+
+    public BaseClient(RestTemplate rest, RestTemplate streamingRest) {
+        this(rest, streamingRest, ResponseCache.disabled(), new BufferPool(STREAM_BUFFER_SIZE, 1), false);
+    }
+
+    private BaseClient(RestTemplate rest, RestTemplate streamingRest, ResponseCache cache, BufferPool buffers,
+                       boolean passthrough) {
         this.rest = rest;
+        this.streamingRest = streamingRest;
+        this.cache = cache;
+        this.buffers = buffers;
+        this.passthrough = passthrough;
+    }
+
+    /**
+     * Sends requests through the shared {@code transport}. Streams and uploads get its long read timeout and
+     * none of the builder's customizers, whose interceptors, such as the request metrics, buffer request bodies.
+     */
+    public BaseClient(RestTemplateBuilder builder, UpstreamTransport transport, ResponseCache cache) {
+        this(builder.requestFactory(transport::requestFactory).build(),
+                builder.requestFactory(transport::streamingRequestFactory).customizers(List.of()).build(),
+                cache, transport.buffers(), transport.isPassthrough());
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -27,6 +74,44 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    /**
+     * Answers from {@link #cache} if it holds the server's answer to this GET, and otherwise asks the server and
+     * keeps the answer for the route's TTL. The answer is read whole either way.
+     */
+    protected ResponseEntity<Object> cachedGet(ResponseCache.Route route, String path, long userId,
+                                               @Nullable Map<String, Object> parameters) {
+        if (!cache.isEnabled()) {
+            return get(path, userId, parameters);
+        }
+        URI uri = expand(path, parameters);
+        ResponseCache.Key key = cache.key(route, uri, userId);
+        ResponseCache.CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            return ResponseEntity.ok().headers(cached.getHeaders()).body(cached.getBody());
+        }
+        long generation = cache.generation(route);
+        try (ClientHttpResponse response = execute(HttpMethod.GET, uri, userId, null)) {
+            HttpHeaders headers = relayedHeaders(response);
+            byte[] body = StreamUtils.copyToByteArray(response.getBody());
+            cache.put(key, generation, response.getRawStatusCode(), headers, body);
+            ResponseEntity.BodyBuilder relayed = ResponseEntity.status(response.getRawStatusCode()).headers(headers);
+            return body.length == 0 ? relayed.build() : relayed.body(body);
+        } catch (IOException e) {
+            throw ioError(HttpMethod.GET, uri, e);
+        }
+    }
+
+    /**
+     * Runs {@code purge}, which drops the cached answers a mutating call changed, once the server has answered
+     * the call with success.
+     */
+    protected static ResponseEntity<Object> purgeOnSuccess(ResponseEntity<Object> response, Runnable purge) {
+        if (HttpStatus.Series.resolve(response.getStatusCodeValue()) == HttpStatus.Series.SUCCESSFUL) {
+            purge.run();
+        }
+        return response;
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -75,7 +160,48 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Streams the server's response body to the caller as it arrives, flushing after every read,
+     * for long-lived responses such as server-sent events. JSON is accepted as well, for error answers.
+     */
+    protected StreamingResponseBody stream(String path, long userId, MediaType accept) {
+        return stream(path, userId, accept, HttpHeaders.EMPTY);
+    }
+
+    /**
+     * Same as {@link #stream(String, long, MediaType)}, also sending {@code headers}, such as
+     * {@code Last-Event-ID}.
+     */
+    protected StreamingResponseBody stream(String path, long userId, MediaType accept, HttpHeaders headers) {
+        return outputStream -> streamingRest.execute(path, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().addAll(headers);
+                    request.getHeaders().setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                },
+                response -> buffers.copy(response.getBody(), outputStream, true));
+    }
+
+    /**
+     * Sends {@code body} to the server as it is read and streams the server's response back in the same way,
+     * so neither is held in memory.
+     */
+    protected StreamingResponseBody upload(String path, long userId, MediaType contentType, InputStream body,
+                                           MediaType accept) {
+        return outputStream -> streamingRest.execute(path, HttpMethod.POST,
+                request -> {
+                    request.getHeaders().setContentType(contentType);
+                    request.getHeaders().setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                    ((StreamingHttpOutputMessage) request).setBody(requestBody -> body.transferTo(requestBody));
+                },
+                response -> buffers.copy(response.getBody(), outputStream, true));
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        if (passthrough) {
+            return relay(method, path, userId, parameters, body);
+        }
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
         ResponseEntity<Object> shareitServerResponse;
@@ -91,6 +217,75 @@ public class BaseClient {
         return prepareGatewayResponse(shareitServerResponse);
     }
 
+    /**
+     * Sends the request like {@link RestTemplate#exchange} does, but answers with the server's status, headers
+     * and body bytes, which are copied to the client as they arrive instead of being parsed and written again.
+     * A response without a content type, such as an empty one, is read here.
+     */
+    private <T> ResponseEntity<Object> relay(HttpMethod method, String path, Long userId,
+                                             @Nullable Map<String, Object> parameters, @Nullable T body) {
+        URI uri = expand(path, parameters);
+        ClientHttpResponse response = null;
+        try {
+            response = execute(method, uri, userId, body);
+            ResponseEntity.BodyBuilder relayed = ResponseEntity.status(response.getRawStatusCode())
+                    .headers(relayedHeaders(response));
+            if (response.getHeaders().getContentType() == null) {
+                try (ClientHttpResponse empty = response) {
+                    byte[] bytes = StreamUtils.copyToByteArray(empty.getBody());
+                    return bytes.length == 0 ? relayed.build() : relayed.body(bytes);
+                }
+            }
+            return relayed.body(new UpstreamBody(response, buffers));
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
+            }
+            throw ioError(method, uri, e);
+        }
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+    }
+
+    private ClientHttpResponse execute(HttpMethod method, URI uri, Long userId, @Nullable Object body)
+            throws IOException {
+        ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+        request.getHeaders().putAll(defaultHeaders(userId));
+        if (body != null) {
+            writeBody(body, request);
+        }
+        return request.execute();
+    }
+
+    private static HttpHeaders relayedHeaders(ClientHttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+
+    private static ResourceAccessException ioError(HttpMethod method, URI uri, IOException e) {
+        return new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": "
+                + e.getMessage(), e);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeBody(Object body, ClientHttpRequest request) throws IOException {
+        for (HttpMessageConverter<?> converter : rest.getMessageConverters()) {
+            if (converter.canWrite(body.getClass(), MediaType.APPLICATION_JSON)) {
+                ((HttpMessageConverter<Object>) converter).write(body, MediaType.APPLICATION_JSON, request);
+                return;
+            }
+        }
+        throw new RestClientException("No converter writes " + body.getClass().getName() + " as JSON");
+    }
+
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
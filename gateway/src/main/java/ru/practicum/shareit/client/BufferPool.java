@@ -0,0 +1,56 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Byte buffers of {@code size} bytes for copying bodies between the server and the client, of which up to
+ * {@code pooled} are kept for reuse, so that relaying a large body allocates nothing.
+ */
+@Component
+public class BufferPool {
+    private final int size;
+    private final BlockingQueue<byte[]> free;
+
+    public BufferPool(@Value("${shareit-server.buffers.size:16384}") int size,
+                      @Value("${shareit-server.buffers.pooled:64}") int pooled) {
+        if (size <= 0 || pooled <= 0) {
+            throw new IllegalArgumentException("Buffer size and count must be positive: " + pooled + " of " + size);
+        }
+        this.size = size;
+        this.free = new ArrayBlockingQueue<>(pooled);
+    }
+
+    /**
+     * Copies {@code in} to {@code out} through a pooled buffer, flushing after every read if {@code flush} is set,
+     * as streams need. Returns the number of bytes copied.
+     */
+    public long copy(InputStream in, OutputStream out, boolean flush) throws IOException {
+        byte[] buffer = acquire();
+        try {
+            long copied = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (flush) {
+                    out.flush();
+                }
+                copied += read;
+            }
+            return copied;
+        } finally {
+            free.offer(buffer);
+        }
+    }
+
+    private byte[] acquire() {
+        byte[] buffer = free.poll();
+        return buffer != null ? buffer : new byte[size];
+    }
+}
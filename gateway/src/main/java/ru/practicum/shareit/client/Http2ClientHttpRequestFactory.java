@@ -0,0 +1,360 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends requests with the JDK {@link HttpClient}, which multiplexes them over HTTP/2 connections, upgrading
+ * plain-text ones with h2c. Tomcat refuses the upgrade of a request whose body is over its
+ * {@code maxSavePostSize}, so requests with a body of more than {@value #UPGRADE_BODY_LIMIT} bytes go over
+ * HTTP/1.1 connections of the same client. A streamed request body of up to {@value #CHUNK_SIZE} bytes is sent
+ * as one array; a larger one is sent as it is written, with at most {@value #QUEUED_CHUNKS} chunks held in memory.
+ */
+class Http2ClientHttpRequestFactory implements ClientHttpRequestFactory {
+    private static final int UPGRADE_BODY_LIMIT = 4096;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int QUEUED_CHUNKS = 16;
+    /**
+     * Headers the JDK client sets itself and refuses from callers.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "upgrade");
+
+    private final HttpClient client;
+    private final Duration timeout;
+    private final AtomicInteger active;
+
+    Http2ClientHttpRequestFactory(HttpClient client, Duration timeout, AtomicInteger active) {
+        this.client = client;
+        this.timeout = timeout;
+        this.active = active;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new Request(uri, httpMethod);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new InterruptedIOException("Interrupted waiting for the server");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private final class Request implements ClientHttpRequest, StreamingHttpOutputMessage {
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpHeaders headers = new HttpHeaders();
+        private ByteArrayOutputStream bufferedBody;
+        private Body body;
+
+        Request(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            if (bufferedBody == null) {
+                bufferedBody = new ByteArrayOutputStream();
+            }
+            return bufferedBody;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            this.body = body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout);
+            headers.forEach((name, values) -> {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    values.forEach(value -> builder.header(name, value));
+                }
+            });
+            active.incrementAndGet();
+            boolean answered = false;
+            try {
+                HttpResponse<InputStream> response;
+                if (body != null) {
+                    BodySink sink = new BodySink(builder);
+                    try {
+                        body.writeTo(sink);
+                    } catch (IOException | RuntimeException e) {
+                        sink.abort();
+                        throw e;
+                    }
+                    response = sink.finish();
+                } else if (bufferedBody == null) {
+                    response = await(send(builder, HttpRequest.BodyPublishers.noBody()));
+                } else {
+                    response = await(send(builder, bufferedBody.toByteArray(), 0, bufferedBody.size()));
+                }
+                answered = true;
+                return new Response(response);
+            } finally {
+                if (!answered) {
+                    active.decrementAndGet();
+                }
+            }
+        }
+
+        private CompletableFuture<HttpResponse<InputStream>> send(HttpRequest.Builder builder, byte[] body,
+                                                                  int offset, int length) {
+            if (length > UPGRADE_BODY_LIMIT) {
+                builder.version(HttpClient.Version.HTTP_1_1);
+            }
+            return send(builder, HttpRequest.BodyPublishers.ofByteArray(body, offset, length));
+        }
+
+        private CompletableFuture<HttpResponse<InputStream>> send(HttpRequest.Builder builder,
+                                                                  HttpRequest.BodyPublisher publisher) {
+            return client.sendAsync(builder.method(method.name(), publisher).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        }
+
+        /**
+         * Collects the first chunk of the body, and starts the request with the rest to follow through a
+         * {@link BodyPipe} once the body outgrows it.
+         */
+        private final class BodySink extends OutputStream {
+            private final HttpRequest.Builder builder;
+            private final byte[] buffer = new byte[CHUNK_SIZE];
+            private int count;
+            private BodyPipe pipe;
+            private CompletableFuture<HttpResponse<InputStream>> response;
+
+            BodySink(HttpRequest.Builder builder) {
+                this.builder = builder;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                if (count + length > buffer.length) {
+                    drain();
+                    if (length >= buffer.length) {
+                        pipe.put(Arrays.copyOfRange(bytes, offset, offset + length), response);
+                        return;
+                    }
+                }
+                System.arraycopy(bytes, offset, buffer, count, length);
+                count += length;
+            }
+
+            HttpResponse<InputStream> finish() throws IOException {
+                if (pipe == null) {
+                    return await(send(builder, buffer, 0, count));
+                }
+                drain();
+                pipe.end(response);
+                return await(response);
+            }
+
+            /**
+             * Fails a request that has already started, rather than letting the server take a partial body
+             * for a whole one.
+             */
+            void abort() {
+                if (pipe != null) {
+                    pipe.fail();
+                }
+            }
+
+            private void drain() throws IOException {
+                if (pipe == null) {
+                    BodyPipe started = new BodyPipe();
+                    builder.version(HttpClient.Version.HTTP_1_1);
+                    response = send(builder, HttpRequest.BodyPublishers.ofInputStream(() -> started));
+                    pipe = started;
+                }
+                if (count > 0) {
+                    pipe.put(Arrays.copyOf(buffer, count), response);
+                    count = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands body chunks from the thread writing the body to the client thread sending it. The writer blocks
+     * while {@value #QUEUED_CHUNKS} chunks are queued, and gives up once the server has answered without
+     * reading the rest.
+     */
+    private static final class BodyPipe extends InputStream {
+        private static final byte[] END = new byte[0];
+        private static final byte[] FAILED = new byte[0];
+
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        private byte[] chunk;
+        private int position;
+
+        void put(byte[] bytes, CompletableFuture<?> response) throws IOException {
+            try {
+                while (!chunks.offer(bytes, 100, TimeUnit.MILLISECONDS)) {
+                    if (response.isDone()) {
+                        throw new IOException("The server answered before reading the whole request body");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted sending the request body");
+            }
+        }
+
+        void end(CompletableFuture<?> response) throws IOException {
+            put(END, response);
+        }
+
+        void fail() {
+            chunks.clear();
+            chunks.offer(FAILED);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (chunk == END) {
+                return -1;
+            }
+            if (chunk == null || position == chunk.length) {
+                try {
+                    chunk = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted reading the request body");
+                }
+                position = 0;
+                if (chunk == FAILED) {
+                    chunk = END;
+                    throw new IOException("The request body could not be written");
+                }
+                if (chunk == END) {
+                    return -1;
+                }
+            }
+            int read = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, bytes, offset, read);
+            position += read;
+            return read;
+        }
+    }
+
+    private final class Response implements ClientHttpResponse {
+        private final HttpResponse<InputStream> response;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private HttpHeaders headers;
+
+        Response(HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.valueOf(response.statusCode());
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus status = HttpStatus.resolve(response.statusCode());
+            return status == null ? "" : status.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                HttpHeaders copy = new HttpHeaders();
+                response.headers().map().forEach((name, values) -> {
+                    if (!name.startsWith(":")) {
+                        copy.addAll(name, values);
+                    }
+                });
+                headers = copy;
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return response.body();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                try {
+                    response.body().close();
+                } catch (IOException ignored) {
+                    // the exchange is over either way
+                }
+            }
+        }
+    }
+}
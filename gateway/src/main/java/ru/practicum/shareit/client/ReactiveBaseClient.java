@@ -0,0 +1,215 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The non-blocking counterpart of {@link BaseClient}. Every answer of the server, errors included, is passed on
+ * with its status, headers and body bytes as they arrive, like the passthrough mode of {@code BaseClient}.
+ */
+public class ReactiveBaseClient {
+    private static final byte[] EMPTY_LIST = "[]".getBytes(StandardCharsets.UTF_8);
+
+    protected final WebClient web;
+    protected final ResponseCache cache;
+    private final UriBuilderFactory cacheKeys;
+    private final Duration streamReadTimeout;
+
+    public ReactiveBaseClient(ReactiveTransport transport, ResponseCache cache, String path) {
+        this.web = transport.webClient(path);
+        this.cache = cache;
+        this.cacheKeys = new DefaultUriBuilderFactory(path);
+        this.streamReadTimeout = transport.streamReadTimeout();
+    }
+
+    /**
+     * An empty JSON array, for requests answered without asking the server.
+     */
+    public static Mono<ResponseEntity<Flux<DataBuffer>>> emptyList() {
+        return Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(EMPTY_LIST)))));
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path) {
+        return get(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, Long userId,
+                                                         @Nullable Map<String, Object> parameters) {
+        return exchange(HttpMethod.GET, path, userId, parameters, null);
+    }
+
+    /**
+     * Answers from {@link #cache} if it holds the server's answer to this GET, and otherwise asks the server and
+     * keeps the answer for the route's TTL, like {@link BaseClient#cachedGet}.
+     */
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> cachedGet(ResponseCache.Route route, String path, long userId,
+                                                               @Nullable Map<String, Object> parameters) {
+        if (!cache.isEnabled()) {
+            return get(path, userId, parameters);
+        }
+        Map<String, Object> uriVariables = parameters != null ? parameters : Map.of();
+        ResponseCache.Key key = cache.key(route, cacheKeys.expand(path, uriVariables), userId);
+        return Mono.defer(() -> {
+            ResponseCache.CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                return Mono.just(bytes(HttpStatus.OK.value(), cached.getHeaders(), cached.getBody()));
+            }
+            long generation = cache.generation(route);
+            return web.get()
+                    .uri(path, uriVariables)
+                    .headers(requestHeaders -> {
+                        requestHeaders.setAccept(List.of(MediaType.APPLICATION_JSON));
+                        requestHeaders.set("X-Sharer-User-Id", String.valueOf(userId));
+                    })
+                    .retrieve()
+                    .onRawStatus(status -> status >= 400, response -> Mono.empty())
+                    .toEntity(byte[].class)
+                    .map(response -> {
+                        HttpHeaders headers = relayedHeaders(response.getHeaders());
+                        byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+                        cache.put(key, generation, response.getStatusCodeValue(), headers, body);
+                        return bytes(response.getStatusCodeValue(), headers, body);
+                    });
+        });
+    }
+
+    /**
+     * Runs {@code purge}, which drops the cached answers a mutating call changed, once the server has answered
+     * the call with success.
+     */
+    protected static Mono<ResponseEntity<Flux<DataBuffer>>> purgeOnSuccess(
+            Mono<ResponseEntity<Flux<DataBuffer>>> response, Runnable purge) {
+        return response.doOnNext(answer -> {
+            if (HttpStatus.Series.resolve(answer.getStatusCodeValue()) == HttpStatus.Series.SUCCESSFUL) {
+                purge.run();
+            }
+        });
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, T body) {
+        return exchange(HttpMethod.POST, path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, long userId, T body) {
+        return exchange(HttpMethod.POST, path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, T body) {
+        return exchange(HttpMethod.PATCH, path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId, T body) {
+        return exchange(HttpMethod.PATCH, path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId,
+                                                               @Nullable Map<String, Object> parameters, T body) {
+        return exchange(HttpMethod.PATCH, path, userId, parameters, body);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path) {
+        return exchange(HttpMethod.DELETE, path, null, null, null);
+    }
+
+    /**
+     * Passes on a long-lived response, such as server-sent events, which may go {@code stream-read-timeout}
+     * without data. JSON is accepted as well, for error answers.
+     */
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path, long userId, MediaType accept,
+                                                            HttpHeaders headers) {
+        return relay(web.get()
+                .uri(path)
+                .headers(requestHeaders -> {
+                    requestHeaders.addAll(headers);
+                    requestHeaders.setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+                    requestHeaders.set("X-Sharer-User-Id", String.valueOf(userId));
+                })
+                .httpRequest(request -> request.<HttpClientRequest>getNativeRequest()
+                        .responseTimeout(streamReadTimeout)));
+    }
+
+    /**
+     * Sends {@code body} to the server as it arrives and passes the server's response on in the same way.
+     */
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> upload(String path, long userId, MediaType contentType,
+                                                            Flux<DataBuffer> body, MediaType accept) {
+        return relay(web.post()
+                .uri(path)
+                .contentType(contentType)
+                .headers(requestHeaders -> {
+                    requestHeaders.setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+                    requestHeaders.set("X-Sharer-User-Id", String.valueOf(userId));
+                })
+                .httpRequest(request -> request.<HttpClientRequest>getNativeRequest()
+                        .responseTimeout(streamReadTimeout))
+                .body(BodyInserters.fromDataBuffers(body)));
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> exchange(HttpMethod method, String path, Long userId,
+                                                            @Nullable Map<String, Object> parameters,
+                                                            @Nullable Object body) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> {
+                    requestHeaders.setAccept(List.of(MediaType.APPLICATION_JSON));
+                    if (userId != null) {
+                        requestHeaders.set("X-Sharer-User-Id", String.valueOf(userId));
+                    }
+                });
+        return relay(body != null ? request.contentType(MediaType.APPLICATION_JSON).bodyValue(body) : request);
+    }
+
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> relay(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve()
+                .onRawStatus(status -> status >= 400, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(ReactiveBaseClient::withoutHopByHopHeaders);
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> withoutHopByHopHeaders(ResponseEntity<Flux<DataBuffer>> response) {
+        return ResponseEntity.status(response.getStatusCodeValue())
+                .headers(relayedHeaders(response.getHeaders()))
+                .body(response.getBody());
+    }
+
+    private static HttpHeaders relayedHeaders(HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.forEach((name, values) -> {
+            if (!BaseClient.HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> bytes(int status, HttpHeaders headers, byte[] body) {
+        Flux<DataBuffer> content = body.length == 0 ? Flux.empty()
+                : Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+        return ResponseEntity.status(status).headers(headers).body(content);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+
+/**
+ * The connections of the reactive gateway to the server, shared by every {@link ReactiveBaseClient}. It is
+ * configured by the same {@code shareit-server.transport} properties as {@link UpstreamTransport}: a Reactor
+ * Netty pool of {@code max-connections-per-route} connections to the server, which requests wait for at most
+ * {@code lease-timeout}, closed after {@code idle-timeout} without use. No thread waits on a request in flight.
+ * With {@code h2c} requests are multiplexed over HTTP/2 connections opened with prior knowledge, which Tomcat
+ * accepts once {@code server.http2.enabled} is set. Pool metrics are published as
+ * {@code reactor.netty.connection.provider.*}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransport {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTransport.class);
+
+    private final ConnectionProvider connections;
+    private final WebClient.Builder builder;
+    private final String serverUrl;
+    private final Duration streamReadTimeout;
+
+    public ReactiveTransport(WebClient.Builder builder,
+                             @Value("${shareit-server.url}") String serverUrl,
+                             @Value("${shareit-server.transport.max-connections-per-route:200}")
+                             int maxConnectionsPerRoute,
+                             @Value("${shareit-server.transport.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${shareit-server.transport.lease-timeout:5s}") Duration leaseTimeout,
+                             @Value("${shareit-server.transport.read-timeout:30s}") Duration readTimeout,
+                             @Value("${shareit-server.transport.stream-read-timeout:35m}") Duration streamReadTimeout,
+                             @Value("${shareit-server.transport.idle-timeout:15s}") Duration idleTimeout,
+                             @Value("${shareit-server.transport.h2c:false}") boolean h2c) {
+        if (maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("Connection limit must be positive: " + maxConnectionsPerRoute);
+        }
+        this.connections = ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnectionsPerRoute)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(leaseTimeout)
+                .maxIdleTime(idleTimeout)
+                .evictInBackground(idleTimeout)
+                .metrics(true)
+                .build();
+        HttpClient client = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        if (h2c) {
+            client = client.protocol(HttpProtocol.H2C);
+        }
+        this.builder = builder.clone().clientConnector(new ReactorClientHttpConnector(client));
+        this.serverUrl = serverUrl;
+        this.streamReadTimeout = streamReadTimeout;
+        log.info("Reactive upstream transport: {} connections{}", maxConnectionsPerRoute, h2c ? ", h2c" : "");
+    }
+
+    /**
+     * A client for the server resource at {@code path}.
+     */
+    public WebClient webClient(String path) {
+        return builder.clone().baseUrl(serverUrl + path).build();
+    }
+
+    /**
+     * How long event streams and imports may go without data from the server.
+     */
+    public Duration streamReadTimeout() {
+        return streamReadTimeout;
+    }
+
+    @PreDestroy
+    public void close() {
+        connections.dispose();
+    }
+}
@@ -0,0 +1,279 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server answers to repeated GETs, kept as bytes for a {@link Route route}'s TTL. Keys are the path and query,
+ * and the caller's id for routes whose answer depends on the caller. The cache holds at most {@code max-size}
+ * bytes of bodies and headers, evicting by Caffeine's W-TinyLFU; answers other than 200, and bodies over
+ * {@code max-entry-size}, are not kept. Clients purge the routes a mutating call affects once the server has
+ * answered it with success. A GET that was in flight during a purge does not store its answer, which may
+ * predate the change. Properties are under {@code shareit-server.cache}. Statistics are published as the
+ * {@code cache.*} meters with tag {@code cache=gateway.response}, the overall {@code gateway.cache.hit.ratio}
+ * and {@code gateway.cache.requests{route, result=hit|miss}}.
+ */
+@Component
+public class ResponseCache {
+    /**
+     * Estimate of what an entry costs besides its body and headers: key, arrays and cache node.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    public enum Route {
+        ITEM("item", true),
+        ITEM_SEARCH("item-search", false),
+        REQUEST_ALL("request-all", true);
+
+        private final String tag;
+        private final boolean perUser;
+
+        Route(String tag, boolean perUser) {
+            this.tag = tag;
+            this.perUser = perUser;
+        }
+    }
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final Map<Route, Long> ttlNanos = new EnumMap<>(Route.class);
+    private final Map<Route, AtomicLong> generations = new EnumMap<>(Route.class);
+    private final Map<Route, Counter> hits = new EnumMap<>(Route.class);
+    private final Map<Route, Counter> misses = new EnumMap<>(Route.class);
+    private final Cache<Key, CachedResponse> cache;
+
+    @Autowired
+    public ResponseCache(MeterRegistry registry,
+                         @Value("${shareit-server.cache.enabled:true}") boolean enabled,
+                         @Value("${shareit-server.cache.max-size:32MB}") DataSize maxSize,
+                         @Value("${shareit-server.cache.max-entry-size:256KB}") DataSize maxEntrySize,
+                         @Value("${shareit-server.cache.ttl.item:30s}") Duration itemTtl,
+                         @Value("${shareit-server.cache.ttl.item-search:60s}") Duration itemSearchTtl,
+                         @Value("${shareit-server.cache.ttl.request-all:30s}") Duration requestAllTtl) {
+        this(enabled, maxSize, maxEntrySize, Map.of(Route.ITEM, itemTtl, Route.ITEM_SEARCH, itemSearchTtl,
+                Route.REQUEST_ALL, requestAllTtl), Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(registry, cache, "gateway.response");
+        Gauge.builder("gateway.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of cacheable GETs answered from the gateway cache")
+                .register(registry);
+        for (Route route : Route.values()) {
+            hits.put(route, requests(registry, route, "hit"));
+            misses.put(route, requests(registry, route, "miss"));
+        }
+    }
+
+    ResponseCache(boolean enabled, DataSize maxSize, DataSize maxEntrySize, Map<Route, Duration> ttls,
+                  Ticker ticker) {
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        for (Route route : Route.values()) {
+            ttlNanos.put(route, ttls.get(route).toNanos());
+            generations.put(route, new AtomicLong());
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, CachedResponse response) -> response.weight())
+                .expireAfter(new RouteExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * A cache that never keeps anything, for clients built without one.
+     */
+    static ResponseCache disabled() {
+        return new ResponseCache(false, DataSize.ofBytes(0), DataSize.ofBytes(0), Map.of(Route.ITEM, Duration.ZERO,
+                Route.ITEM_SEARCH, Duration.ZERO, Route.REQUEST_ALL, Duration.ZERO), Ticker.systemTicker());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Key key(Route route, URI uri, long userId) {
+        String pathAndQuery = uri.getRawQuery() == null ? uri.getRawPath()
+                : uri.getRawPath() + "?" + uri.getRawQuery();
+        return new Key(route, pathAndQuery, route.perUser ? userId : null);
+    }
+
+    @Nullable
+    public CachedResponse get(Key key) {
+        CachedResponse response = cache.getIfPresent(key);
+        Counter counter = (response != null ? hits : misses).get(key.route);
+        if (counter != null) {
+            counter.increment();
+        }
+        return response;
+    }
+
+    /**
+     * The route's generation, to be read before asking the server and handed to {@link #put}.
+     */
+    public long generation(Route route) {
+        return generations.get(route).get();
+    }
+
+    /**
+     * Keeps a 200 answer of at most {@code max-entry-size} bytes, unless the route was purged since
+     * {@code generation} was read.
+     */
+    public void put(Key key, long generation, int status, HttpHeaders headers, byte[] body) {
+        if (!enabled || status != HttpStatus.OK.value() || body.length > maxEntryBytes) {
+            return;
+        }
+        HttpHeaders kept = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!HttpHeaders.DATE.equalsIgnoreCase(name)) {
+                kept.addAll(name, values);
+            }
+        });
+        CachedResponse response = new CachedResponse(HttpHeaders.readOnlyHttpHeaders(kept), body);
+        if (generation(key.route) == generation) {
+            cache.put(key, response);
+            if (generation(key.route) != generation) {
+                cache.asMap().remove(key, response);
+            }
+        }
+    }
+
+    public void purge(Route... routes) {
+        for (Route route : routes) {
+            generations.get(route).incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> key.route == route);
+        }
+    }
+
+    /**
+     * Purges the views of one item, for every caller.
+     */
+    public void purgeItem(long itemId) {
+        generations.get(Route.ITEM).incrementAndGet();
+        String path = "/" + itemId;
+        cache.asMap().keySet().removeIf(key -> key.route == Route.ITEM && key.pathAndQuery.endsWith(path));
+    }
+
+    public void purgeAll() {
+        purge(Route.values());
+    }
+
+    /**
+     * Runs pending evictions now rather than on Caffeine's executor.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static Counter requests(MeterRegistry registry, Route route, String result) {
+        return Counter.builder("gateway.cache.requests")
+                .tag("route", route.tag)
+                .tag("result", result)
+                .description("Cacheable GETs by route, answered from the cache or by the server")
+                .register(registry);
+    }
+
+    public static final class Key {
+        private final Route route;
+        private final String pathAndQuery;
+        private final Long userId;
+
+        private Key(Route route, String pathAndQuery, Long userId) {
+            this.route = route;
+            this.pathAndQuery = pathAndQuery;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return route == other.route && pathAndQuery.equals(other.pathAndQuery)
+                    && Objects.equals(userId, other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(route, pathAndQuery, userId);
+        }
+
+        @Override
+        public String toString() {
+            return route.tag + " " + pathAndQuery + (userId == null ? "" : " for " + userId);
+        }
+    }
+
+    /**
+     * A 200 answer of the server. The body is shared and must not be modified.
+     */
+    public static final class CachedResponse {
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private CachedResponse(HttpHeaders headers, byte[] body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        private int weight() {
+            int weight = ENTRY_OVERHEAD + body.length;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                weight += header.getKey().length();
+                for (String value : header.getValue()) {
+                    weight += value.length();
+                }
+            }
+            return weight;
+        }
+    }
+
+    private final class RouteExpiry implements Expiry<Key, CachedResponse> {
+        @Override
+        public long expireAfterCreate(Key key, CachedResponse value, long currentTime) {
+            return ttlNanos.get(key.route);
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, CachedResponse value, long currentTime, long currentDuration) {
+            return ttlNanos.get(key.route);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A server response body passed on to the client as it arrives, without being parsed. It is written by
+ * {@link UpstreamBodyHttpMessageConverter}, which closes the server response when done.
+ */
+public final class UpstreamBody {
+    private final ClientHttpResponse response;
+    private final BufferPool buffers;
+
+    UpstreamBody(ClientHttpResponse response, BufferPool buffers) {
+        this.response = response;
+        this.buffers = buffers;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        try {
+            buffers.copy(response.getBody(), out, false);
+        } finally {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes an {@link UpstreamBody} as the bytes the server sent, under the content type the server gave it.
+ */
+@Component
+public class UpstreamBodyHttpMessageConverter implements HttpMessageConverter<UpstreamBody> {
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return UpstreamBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return List.of(MediaType.ALL);
+    }
+
+    @Override
+    public UpstreamBody read(Class<? extends UpstreamBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Server bodies are only written", inputMessage);
+    }
+
+    @Override
+    public void write(UpstreamBody body, @Nullable MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException {
+        body.writeTo(outputMessage.getBody());
+    }
+}
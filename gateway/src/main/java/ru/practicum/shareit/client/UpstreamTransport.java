@@ -0,0 +1,214 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The connections of the gateway to the server, shared by every client. By default this is one pool of
+ * HTTP/1.1 connections, {@code max-connections} in all and {@code max-connections-per-route} to one server,
+ * kept alive between requests and evicted after {@code idle-timeout} without use, which should stay below the
+ * server's own keep-alive timeout. A request waits at most {@code lease-timeout} for a free connection.
+ * With {@code h2c} requests are multiplexed over HTTP/2 connections of the JDK client instead; the server
+ * then needs {@code server.http2.enabled}. Ordinary requests fail after {@code read-timeout} without an answer;
+ * the streaming factory, for event streams and imports, waits {@code stream-read-timeout}. Request bodies are
+ * never buffered. With {@code passthrough}, the default, clients pass server responses on as bytes instead of
+ * parsing and writing them again. Properties are under {@code shareit-server.transport}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UpstreamTransport {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamTransport.class);
+
+    private final BufferPool buffers;
+    private final boolean passthrough;
+    private final CloseableHttpClient pooledClient;
+    private final ClientHttpRequestFactory requestFactory;
+    private final ClientHttpRequestFactory streamingRequestFactory;
+
+    public UpstreamTransport(MeterRegistry registry, BufferPool buffers,
+                             @Value("${shareit-server.transport.max-connections:200}") int maxConnections,
+                             @Value("${shareit-server.transport.max-connections-per-route:200}")
+                             int maxConnectionsPerRoute,
+                             @Value("${shareit-server.transport.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${shareit-server.transport.lease-timeout:5s}") Duration leaseTimeout,
+                             @Value("${shareit-server.transport.read-timeout:30s}") Duration readTimeout,
+                             @Value("${shareit-server.transport.stream-read-timeout:35m}") Duration streamReadTimeout,
+                             @Value("${shareit-server.transport.idle-timeout:15s}") Duration idleTimeout,
+                             @Value("${shareit-server.transport.h2c:false}") boolean h2c,
+                             @Value("${shareit-server.transport.passthrough:true}") boolean passthrough) {
+        if (maxConnections <= 0 || maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("Connection limits must be positive: " + maxConnections
+                    + " in all, " + maxConnectionsPerRoute + " per route");
+        }
+        this.buffers = buffers;
+        this.passthrough = passthrough;
+        if (h2c) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(connectTimeout)
+                    .build();
+            AtomicInteger active = new AtomicInteger();
+            Gauge.builder("gateway.upstream.requests.active", active, AtomicInteger::get)
+                    .description("Requests to the server waiting for or reading an answer")
+                    .register(registry);
+            this.pooledClient = null;
+            this.requestFactory = new Http2ClientHttpRequestFactory(client, readTimeout, active);
+            this.streamingRequestFactory = new Http2ClientHttpRequestFactory(client, streamReadTimeout, active);
+            log.info("Upstream transport: h2c");
+            return;
+        }
+        LeaseTimingConnectionManager connectionManager = new LeaseTimingConnectionManager(registry);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionGauge(registry, "leased", connectionManager, PoolStats::getLeased);
+        connectionGauge(registry, "available", connectionManager, PoolStats::getAvailable);
+        connectionGauge(registry, "pending", connectionManager, PoolStats::getPending);
+        Gauge.builder("gateway.upstream.connections.max", connectionManager,
+                        manager -> manager.getTotalStats().getMax())
+                .description("Connections the pool may open to the server")
+                .register(registry);
+        long idleMillis = idleTimeout.toMillis();
+        this.pooledClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) connectTimeout.toMillis())
+                        .setConnectionRequestTimeout((int) leaseTimeout.toMillis())
+                        .setSocketTimeout((int) readTimeout.toMillis())
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, idleMillis) : idleMillis;
+                })
+                .evictIdleConnections(idleMillis, TimeUnit.MILLISECONDS)
+                .evictExpiredConnections()
+                .build();
+        this.requestFactory = httpComponentsFactory(pooledClient, readTimeout);
+        this.streamingRequestFactory = httpComponentsFactory(pooledClient, streamReadTimeout);
+        log.info("Upstream transport: pool of {} connections, {} per route", maxConnections, maxConnectionsPerRoute);
+    }
+
+    /**
+     * The factory for ordinary requests, answered within {@code read-timeout}.
+     */
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    /**
+     * The factory for long-lived exchanges, such as event streams and imports.
+     */
+    public ClientHttpRequestFactory streamingRequestFactory() {
+        return streamingRequestFactory;
+    }
+
+    /**
+     * The buffers for copying bodies between the server and the client.
+     */
+    public BufferPool buffers() {
+        return buffers;
+    }
+
+    /**
+     * Whether server responses are passed on as bytes rather than parsed.
+     */
+    public boolean isPassthrough() {
+        return passthrough;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (pooledClient != null) {
+            pooledClient.close();
+        }
+    }
+
+    private static HttpComponentsClientHttpRequestFactory httpComponentsFactory(CloseableHttpClient client,
+                                                                                Duration readTimeout) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(client);
+        factory.setBufferRequestBody(false);
+        factory.setReadTimeout((int) readTimeout.toMillis());
+        return factory;
+    }
+
+    private static void connectionGauge(MeterRegistry registry, String state,
+                                        PoolingHttpClientConnectionManager connectionManager,
+                                        ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("gateway.upstream.connections", connectionManager,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .tag("state", state)
+                .description("Connections to the server by state; pending counts requests waiting for one")
+                .register(registry);
+    }
+
+    /**
+     * Records how long each request waited for a pooled connection, tagged with whether it got one.
+     */
+    private static final class LeaseTimingConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Timer leased;
+        private final Timer timedOut;
+
+        LeaseTimingConnectionManager(MeterRegistry registry) {
+            this.leased = leaseWait(registry, "leased");
+            this.timedOut = leaseWait(registry, "timeout");
+        }
+
+        private static Timer leaseWait(MeterRegistry registry, String outcome) {
+            return Timer.builder("gateway.upstream.lease.wait")
+                    .tag("outcome", outcome)
+                    .description("Time requests waited for a connection to the server")
+                    .register(registry);
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit unit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long began = System.nanoTime();
+                    try {
+                        HttpClientConnection connection = request.get(timeout, unit);
+                        leased.record(System.nanoTime() - began, TimeUnit.NANOSECONDS);
+                        return connection;
+                    } catch (ConnectionPoolTimeoutException e) {
+                        timedOut.record(System.nanoTime() - began, TimeUnit.NANOSECONDS);
+                        throw e;
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+}
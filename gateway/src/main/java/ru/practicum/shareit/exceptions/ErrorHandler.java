@@ -3,10 +3,12 @@ package ru.practicum.shareit.exceptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.HttpStatusCodeException;
 
 import java.util.Map;
 
@@ -34,4 +36,17 @@ public class ErrorHandler {
         log.error("Illegal state: {}", e.getMessage(), e);
         return Map.of("error", e.getMessage());
     }
-}
\ No newline at end of file
+
+    /**
+     * An error answer of the server to a streamed request, passed on as it is while nothing has been written yet.
+     */
+    @ExceptionHandler
+    public ResponseEntity<byte[]> handleServerError(final HttpStatusCodeException e) {
+        log.error("Server error: {}", e.getStatusCode());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(e.getStatusCode());
+        if (e.getResponseHeaders() != null && e.getResponseHeaders().getContentType() != null) {
+            response.contentType(e.getResponseHeaders().getContentType());
+        }
+        return response.body(e.getResponseBodyAsByteArray());
+    }
+}
@@ -2,29 +2,31 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.PathConstants;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.UpstreamTransport;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ItemClient extends BaseClient {
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.ITEMS))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      UpstreamTransport transport, ResponseCache cache) {
+        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.ITEMS)), transport, cache);
     }
 
     public ResponseEntity<Object> findAllUserItems(long userId, int from, int size) {
@@ -36,15 +38,19 @@ public class ItemClient extends BaseClient {
     }
 
     public ResponseEntity<Object> findById(long userId, long id) {
-        return get("/" + id, userId);
+        return cachedGet(ResponseCache.Route.ITEM, "/" + id, userId, null);
     }
 
     public ResponseEntity<Object> update(long userId, long id, ItemDto item) {
-        return patch("/" + id, userId, item);
+        return purgeOnSuccess(patch("/" + id, userId, item), () -> {
+            cache.purgeItem(id);
+            cache.purge(ResponseCache.Route.ITEM_SEARCH, ResponseCache.Route.REQUEST_ALL);
+        });
     }
 
     public ResponseEntity<Object> save(long userId, ItemDto item) {
-        return post("", userId, item);
+        return purgeOnSuccess(post("", userId, item),
+                () -> cache.purge(ResponseCache.Route.ITEM_SEARCH, ResponseCache.Route.REQUEST_ALL));
     }
 
     public ResponseEntity<Object> search(long userId, String text, int from, int size) {
@@ -53,10 +59,35 @@ public class ItemClient extends BaseClient {
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return cachedGet(ResponseCache.Route.ITEM_SEARCH, "/search?text={text}&from={from}&size={size}", userId,
+                parameters);
+    }
+
+    public ResponseEntity<Object> suggest(long userId, String prefix, int size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> addComment(long userId, long id, CommentDto comment) {
-        return post("/" + id + "/comment", userId, comment);
+        return purgeOnSuccess(post("/" + id + "/comment", userId, comment), () -> cache.purgeItem(id));
+    }
+
+    /**
+     * Imports items, purging the cached searches and requests afterwards, since every batch the server
+     * committed changed them whatever the outcome of the rest.
+     */
+    public StreamingResponseBody importItems(long userId, MediaType contentType, InputStream body) {
+        StreamingResponseBody upload = upload(PathConstants.ITEMS_IMPORT, userId, contentType, body,
+                MediaType.APPLICATION_NDJSON);
+        return outputStream -> {
+            try {
+                upload.writeTo(outputStream);
+            } finally {
+                cache.purge(ResponseCache.Route.ITEM_SEARCH, ResponseCache.Route.REQUEST_ALL);
+            }
+        };
     }
 }
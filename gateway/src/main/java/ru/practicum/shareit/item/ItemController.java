@@ -2,21 +2,28 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.Checks;
 import ru.practicum.shareit.PathConstants;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 import java.util.Collections;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(PathConstants.ITEMS)
 @RequiredArgsConstructor
 @Slf4j
@@ -53,6 +60,17 @@ public class ItemController {
         return itemClient.save(userId, item);
     }
 
+    @PostMapping(path = PathConstants.ITEMS_IMPORT, consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                             HttpServletRequest request) throws IOException {
+        log.info("Запрос на импорт предметов пользователем с userId {}", userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(itemClient.importItems(userId, MediaType.parseMediaType(request.getContentType()),
+                        request.getInputStream()));
+    }
+
     @GetMapping(PathConstants.ITEMS_SEARCH)
     public ResponseEntity<Object> search(@RequestHeader("X-Sharer-User-Id") long userId,
                                          @RequestParam String text,
@@ -67,6 +85,17 @@ public class ItemController {
         return itemClient.search(userId, text, from, size);
     }
 
+    @GetMapping(PathConstants.ITEMS_SUGGEST)
+    public ResponseEntity<Object> suggest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                          @RequestParam String prefix,
+                                          @Positive @Max(10) @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        if (prefix.trim().isEmpty()) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+        log.info("Запрос подсказок по префиксу {}", prefix);
+        return itemClient.suggest(userId, prefix, size);
+    }
+
     @PostMapping(PathConstants.BY_ID + PathConstants.ITEMS_COMMENTS)
     public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable long id,
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ReactiveTransport;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemClient extends ReactiveBaseClient {
+    public ReactiveItemClient(ReactiveTransport transport, ResponseCache cache) {
+        super(transport, cache, PathConstants.ITEMS);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllUserItems(long userId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findById(long userId, long id) {
+        return cachedGet(ResponseCache.Route.ITEM, "/" + id, userId, null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(long userId, long id, ItemDto item) {
+        return purgeOnSuccess(patch("/" + id, userId, item), () -> {
+            cache.purgeItem(id);
+            cache.purge(ResponseCache.Route.ITEM_SEARCH, ResponseCache.Route.REQUEST_ALL);
+        });
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> save(long userId, ItemDto item) {
+        return purgeOnSuccess(post("", userId, item),
+                () -> cache.purge(ResponseCache.Route.ITEM_SEARCH, ResponseCache.Route.REQUEST_ALL));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> search(long userId, String text, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return cachedGet(ResponseCache.Route.ITEM_SEARCH, "/search?text={text}&from={from}&size={size}", userId,
+                parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> suggest(long userId, String prefix, int size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(long userId, long id, CommentDto comment) {
+        return purgeOnSuccess(post("/" + id + "/comment", userId, comment), () -> cache.purgeItem(id));
+    }
+
+    /**
+     * Imports items, purging the cached searches and requests once the report ends, like
+     * {@link ItemClient#importItems}.
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> importItems(long userId, MediaType contentType,
+                                                              Flux<DataBuffer> body) {
+        return upload(PathConstants.ITEMS_IMPORT, userId, contentType, body, MediaType.APPLICATION_NDJSON)
+                .map(response -> ResponseEntity.status(response.getStatusCodeValue())
+                        .headers(response.getHeaders())
+                        .body(response.getBody().doFinally(signal -> cache.purge(ResponseCache.Route.ITEM_SEARCH,
+                                ResponseCache.Route.REQUEST_ALL))));
+    }
+}
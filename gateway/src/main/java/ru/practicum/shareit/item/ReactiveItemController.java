@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.Checks;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * The reactive runtime's {@link ItemController}.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(PathConstants.ITEMS)
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveItemController {
+    private final ReactiveItemClient itemClient;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllUserItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Запрос на получение списка всех предметов");
+        return itemClient.findAllUserItems(userId, from, size);
+    }
+
+    @GetMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                           @PathVariable long id) {
+        log.info("Запрос на получение предмета с id {}", id);
+        return itemClient.findById(userId, id);
+    }
+
+    @PatchMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @PathVariable long id, @RequestBody ItemDto item) {
+        log.info("Запрос на обновление предмета с id {} пользователем с userId {}", id, userId);
+        return itemClient.update(userId, id, item);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> save(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @Valid @RequestBody ItemDto item) {
+        log.info("Запрос на добавление нового предмета пользователем с userId {}", userId);
+        return itemClient.save(userId, item);
+    }
+
+    @PostMapping(path = PathConstants.ITEMS_IMPORT, consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> importItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              ServerHttpRequest request) {
+        log.info("Запрос на импорт предметов пользователем с userId {}", userId);
+        return itemClient.importItems(userId, request.getHeaders().getContentType(), request.getBody());
+    }
+
+    @GetMapping(PathConstants.ITEMS_SEARCH)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> search(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @RequestParam String text,
+                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        Checks.pageParams(from, size);
+        if (text == null || text.trim().isEmpty()) {
+            log.info("Пустой запрос на поиск предмета");
+            return ReactiveBaseClient.emptyList();
+        }
+        log.info("Запрос на поиск предмета по названию или описанию");
+        return itemClient.search(userId, text, from, size);
+    }
+
+    @GetMapping(PathConstants.ITEMS_SUGGEST)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> suggest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @RequestParam String prefix,
+                                                          @Positive @Max(10) @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        if (prefix.trim().isEmpty()) {
+            return ReactiveBaseClient.emptyList();
+        }
+        log.info("Запрос подсказок по префиксу {}", prefix);
+        return itemClient.suggest(userId, prefix, size);
+    }
+
+    @PostMapping(PathConstants.BY_ID + PathConstants.ITEMS_COMMENTS)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                             @PathVariable long id,
+                                                             @Valid @RequestBody CommentDto comment) {
+        log.info("Запрос на добавление комментария пользователем с userId {}", userId);
+        return itemClient.addComment(userId, id, comment);
+    }
+}
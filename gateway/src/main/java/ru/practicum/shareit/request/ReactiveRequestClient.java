@@ -0,0 +1,56 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ReactiveTransport;
+import ru.practicum.shareit.request.dto.RequestDto;
+
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRequestClient extends ReactiveBaseClient {
+    public ReactiveRequestClient(ReactiveTransport transport, ResponseCache cache) {
+        super(transport, cache, PathConstants.REQUESTS);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> save(long userId, RequestDto request) {
+        return purgeOnSuccess(post("", userId, request), () -> cache.purge(ResponseCache.Route.REQUEST_ALL));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllUserRequests(long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAll(long userId, int from, int size, String after) {
+        if (after == null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size
+            );
+            return cachedGet(ResponseCache.Route.REQUEST_ALL, "/all?from={from}&size={size}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "size", size,
+                "after", after
+        );
+        return cachedGet(ResponseCache.Route.REQUEST_ALL, "/all?size={size}&after={after}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> subscribeToMatches(long userId) {
+        return stream(PathConstants.REQUESTS_MATCHES, userId, MediaType.TEXT_EVENT_STREAM, HttpHeaders.EMPTY);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findById(long userId, long id) {
+        return get("/" + id, userId);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.Checks;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.request.dto.RequestDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * The reactive runtime's {@link RequestController}.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(PathConstants.REQUESTS)
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveRequestController {
+    private final ReactiveRequestClient requestClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> save(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @RequestBody @Valid RequestDto request) {
+        log.info("Сохранение запроса");
+        return requestClient.save(userId, request);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllUserRequests(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Получение всех запросов переданного пользователя");
+        return requestClient.findAllUserRequests(userId);
+    }
+
+    @GetMapping(PathConstants.ALL)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                          @RequestParam(name = "after", required = false) String after) {
+        Checks.pageParams(from, size);
+        log.info("Получение все запросов других пользователей, на которые можно ответить");
+        return requestClient.findAll(userId, from, size, after);
+    }
+
+    @GetMapping(path = PathConstants.REQUESTS_MATCHES, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> subscribeToMatches(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Подписка на вещи, подходящие к запросам пользователя {}", userId);
+        return requestClient.subscribeToMatches(userId);
+    }
+
+    @GetMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                           @PathVariable long id) {
+        log.info("Получение запроса по id");
+        return requestClient.findById(userId, id);
+    }
+}
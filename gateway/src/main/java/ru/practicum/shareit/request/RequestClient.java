@@ -2,43 +2,55 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.PathConstants;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.UpstreamTransport;
 import ru.practicum.shareit.request.dto.RequestDto;
 
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RequestClient extends BaseClient {
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.REQUESTS))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         UpstreamTransport transport, ResponseCache cache) {
+        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.REQUESTS)), transport, cache);
     }
 
     public ResponseEntity<Object> save(long userId, RequestDto request) {
-        return post("", userId, request);
+        return purgeOnSuccess(post("", userId, request), () -> cache.purge(ResponseCache.Route.REQUEST_ALL));
     }
 
     public ResponseEntity<Object> findAllUserRequests(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> findAll(long userId, int from, int size) {
+    public ResponseEntity<Object> findAll(long userId, int from, int size, String after) {
+        if (after == null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size
+            );
+            return cachedGet(ResponseCache.Route.REQUEST_ALL, "/all?from={from}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
+                "size", size,
+                "after", after
         );
-        return get("/all", userId, parameters);
+        return cachedGet(ResponseCache.Route.REQUEST_ALL, "/all?size={size}&after={after}", userId, parameters);
+    }
+
+    public StreamingResponseBody subscribeToMatches(long userId) {
+        return stream(PathConstants.REQUESTS_MATCHES, userId, MediaType.TEXT_EVENT_STREAM);
     }
 
     public ResponseEntity<Object> findById(long userId, long id) {
@@ -2,10 +2,13 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.Checks;
 import ru.practicum.shareit.PathConstants;
 import ru.practicum.shareit.request.dto.RequestDto;
@@ -15,6 +18,7 @@ import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(PathConstants.REQUESTS)
 @RequiredArgsConstructor
 @Slf4j
@@ -38,10 +42,19 @@ public class RequestController {
     @GetMapping(PathConstants.ALL)
     public ResponseEntity<Object> findAll(@RequestHeader("X-Sharer-User-Id") long userId,
                                           @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                          @RequestParam(name = "after", required = false) String after) {
         Checks.pageParams(from, size);
         log.info("Получение все запросов других пользователей, на которые можно ответить");
-        return requestClient.findAll(userId, from, size);
+        return requestClient.findAll(userId, from, size, after);
+    }
+
+    @GetMapping(path = PathConstants.REQUESTS_MATCHES, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> subscribeToMatches(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Подписка на вещи, подходящие к запросам пользователя {}", userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(requestClient.subscribeToMatches(userId));
     }
 
     @GetMapping(PathConstants.BY_ID)
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ReactiveTransport;
+import ru.practicum.shareit.user.dto.UserDto;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserClient extends ReactiveBaseClient {
+    public ReactiveUserClient(ReactiveTransport transport, ResponseCache cache) {
+        super(transport, cache, PathConstants.USERS);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAll() {
+        return get("");
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findById(long id) {
+        return get("/" + id);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(long id, UserDto user) {
+        return purgeOnSuccess(patch("/" + id, user), cache::purgeAll);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> delete(long id) {
+        return purgeOnSuccess(delete("/" + id), cache::purgeAll);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> save(UserDto user) {
+        return post("", user);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.PathConstants;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.validation.Valid;
+
+/**
+ * The reactive runtime's {@link UserController}.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(PathConstants.USERS)
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveUserController {
+    private final ReactiveUserClient userClient;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAll() {
+        log.info("Запрос на получение списка всех пользователей");
+        return userClient.findAll();
+    }
+
+    @GetMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findById(@PathVariable long id) {
+        log.info("Запрос на получение пользователя c id {}", id);
+        return userClient.findById(id);
+    }
+
+    @PatchMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(@PathVariable long id, @RequestBody UserDto user) {
+        log.info("Запрос на обновление пользователя с id {}", id);
+        return userClient.update(id, user);
+    }
+
+    @DeleteMapping(PathConstants.BY_ID)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> delete(@PathVariable long id) {
+        log.info("Запрос на удаление пользователя с id {}", id);
+        return userClient.delete(id);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> save(@Valid @RequestBody UserDto user) {
+        log.info("Запрос на добавление нового пользователя {}", user);
+        return userClient.save(user);
+    }
+}
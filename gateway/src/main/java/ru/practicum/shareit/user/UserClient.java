@@ -2,25 +2,24 @@ package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.PathConstants;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.UpstreamTransport;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserClient extends BaseClient {
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.USERS))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      UpstreamTransport transport, ResponseCache cache) {
+        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + PathConstants.USERS)), transport, cache);
     }
 
     public ResponseEntity<Object> findAll() {
@@ -32,11 +31,11 @@ public class UserClient extends BaseClient {
     }
 
     public ResponseEntity<Object> update(long id, UserDto user) {
-        return patch("/" + id, user);
+        return purgeOnSuccess(patch("/" + id, user), cache::purgeAll);
     }
 
     public ResponseEntity<Object> delete(long id) {
-        return delete("/" + id);
+        return purgeOnSuccess(delete("/" + id), cache::purgeAll);
     }
 
     public ResponseEntity<Object> save(UserDto user) {
@@ -0,0 +1,231 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the servlet gateway, on platform and on virtual threads, and the reactive gateway against a stub server,
+ * and checks that they pass answers on and validate requests the same way. Virtual threads are skipped before
+ * Java 21. The benchmark sends {@value #BENCHMARK_REQUESTS} requests at once through each mode to a server that takes {@value #SERVER_DELAY_MILLIS} ms to answer each, and prints how many of
+ * them reached the server at the same time; run it with {@code -Dshareit.benchmark=true}.
+ */
+public class GatewayRuntimeTest {
+    private static final int BENCHMARK_REQUESTS = 2_000;
+    private static final long SERVER_DELAY_MILLIS = 200;
+
+    /**
+     * Event loops of the stub server and the benchmark client, apart from the global ones that closing a
+     * gateway disposes.
+     */
+    private final LoopResources loops = LoopResources.create("gateway-test");
+    private final Map<String, AtomicInteger> served = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private DisposableServer server;
+    private ConfigurableApplicationContext gateway;
+
+    @BeforeEach
+    public void setUp() {
+        server = HttpServer.create()
+                .runOn(loops)
+                .port(0)
+                .handle((request, response) -> {
+                    served.computeIfAbsent(request.method() + " " + request.uri(), key -> new AtomicInteger())
+                            .incrementAndGet();
+                    if (request.uri().startsWith("/users/404")) {
+                        return response.status(404)
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just("{\"error\":\"Юзера с таким ID не существует\"}"),
+                                        StandardCharsets.UTF_8);
+                    }
+                    peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.delay(Duration.ofMillis(SERVER_DELAY_MILLIS))
+                                    .map(tick -> "{\"uri\":\"" + request.uri() + "\"}")
+                                    .doFinally(signal -> inFlight.decrementAndGet()), StandardCharsets.UTF_8);
+                })
+                .bindNow();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (gateway != null) {
+            gateway.close();
+        }
+        server.disposeNow();
+        loops.dispose();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    public void testAnswersArePassedOn(Mode mode) throws Exception {
+        int port = startGateway(mode);
+
+        HttpResponse<String> found = send(HttpRequest.newBuilder(uri(port, "/users/1")));
+        HttpResponse<String> missing = send(HttpRequest.newBuilder(uri(port, "/users/404")));
+
+        assertThat(found.statusCode()).isEqualTo(200);
+        assertThat(found.headers().firstValue("Content-Type")).hasValue("application/json");
+        assertThat(found.body()).isEqualTo("{\"uri\":\"/users/1\"}");
+        assertThat(missing.statusCode()).isEqualTo(404);
+        assertThat(missing.body()).isEqualTo("{\"error\":\"Юзера с таким ID не существует\"}");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    public void testRequestsAreValidatedBeforeTheServer(Mode mode) throws Exception {
+        int port = startGateway(mode);
+
+        HttpResponse<String> unknownState = send(HttpRequest.newBuilder(uri(port, "/bookings?state=bogus"))
+                .header("X-Sharer-User-Id", "1"));
+        HttpResponse<String> endBeforeStart = send(HttpRequest.newBuilder(uri(port, "/bookings"))
+                .header("X-Sharer-User-Id", "1")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"itemId\":1,\"start\":\"2030-01-02T10:00:00\",\"end\":\"2030-01-01T10:00:00\"}")));
+
+        assertThat(unknownState.statusCode()).isEqualTo(400);
+        assertThat(unknownState.body()).contains("Unknown state: bogus");
+        assertThat(endBeforeStart.statusCode()).isEqualTo(400);
+        assertThat(endBeforeStart.body()).contains("Неправильное время");
+        assertThat(peakInFlight.get()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    public void testRepeatedGetsAreCachedUntilAChangePassesThrough(Mode mode) throws Exception {
+        int port = startGateway(mode);
+        String search = "/items/search?text=drill&from=0&size=10";
+
+        assertThat(getAs(port, "/items/1", 1)).isEqualTo("{\"uri\":\"/items/1\"}");
+        assertThat(getAs(port, "/items/1", 1)).isEqualTo("{\"uri\":\"/items/1\"}");
+        getAs(port, "/items/1", 2);
+        getAs(port, search, 1);
+        getAs(port, search, 2);
+
+        assertThat(served.get("GET /items/1")).hasValue(2);
+        assertThat(served.get("GET " + search)).hasValue(1);
+
+        HttpResponse<String> updated = send(HttpRequest.newBuilder(uri(port, "/items/1"))
+                .header("X-Sharer-User-Id", "1")
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"name\":\"Drill\"}")));
+        getAs(port, "/items/1", 1);
+        getAs(port, search, 1);
+
+        assertThat(updated.statusCode()).isEqualTo(200);
+        assertThat(served.get("GET /items/1")).hasValue(3);
+        assertThat(served.get("GET " + search)).hasValue(2);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+    public void benchmarkConcurrentRequests() {
+        for (Mode mode : Mode.values()) {
+            if (mode == Mode.VIRTUAL_THREADS && !VirtualThreads.isSupported()) {
+                System.out.printf("%s: skipped, needs Java 21%n", mode);
+                continue;
+            }
+            int port = startGateway(mode);
+            peakInFlight.set(0);
+            long began = System.nanoTime();
+            int answered = sendAtOnce(port, BENCHMARK_REQUESTS);
+            long millis = (System.nanoTime() - began) / 1_000_000;
+            System.out.printf("%s: %d of %d requests answered in %d ms, at most %d at the server at once%n",
+                    mode, answered, BENCHMARK_REQUESTS, millis, peakInFlight.get());
+            gateway.close();
+            gateway = null;
+        }
+    }
+
+    private int startGateway(Mode mode) {
+        assumeTrue(mode != Mode.VIRTUAL_THREADS || VirtualThreads.isSupported(), "Virtual threads need Java 21");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ShareItGateway.class);
+        if (mode == Mode.REACTIVE) {
+            builder.profiles("reactive");
+        }
+        gateway = builder.run("--server.port=0",
+                "--shareit-server.url=http://localhost:" + server.port(),
+                "--spring.threads.virtual.enabled=" + (mode == Mode.VIRTUAL_THREADS),
+                "--shareit-server.transport.max-connections=" + BENCHMARK_REQUESTS,
+                "--shareit-server.transport.max-connections-per-route=" + BENCHMARK_REQUESTS,
+                "--logging.level.ru.practicum.shareit=WARN");
+        return Integer.parseInt(gateway.getEnvironment().getProperty("local.server.port"));
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String getAs(int port, String path, long userId) throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri(port, path))
+                .header("X-Sharer-User-Id", String.valueOf(userId)));
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.body();
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return java.net.http.HttpClient.newHttpClient()
+                .send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends {@code count} requests over as many connections without waiting for any answer, and returns the
+     * number answered with 200.
+     */
+    private int sendAtOnce(int port, int count) {
+        ConnectionProvider connections = ConnectionProvider.builder("benchmark")
+                .maxConnections(count)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(connections)
+                .runOn(loops)
+                .baseUrl("http://localhost:" + port)
+                .responseTimeout(Duration.ofMinutes(1));
+        try {
+            Long answered = Flux.range(0, count)
+                    .flatMap(i -> client.headers(headers -> headers.set("X-Sharer-User-Id", "1"))
+                            .get()
+                            .uri("/items/" + i)
+                            .responseSingle((response, body) -> body.asString()
+                                    .defaultIfEmpty("")
+                                    .map(ignored -> response.status().code()))
+                            .onErrorReturn(0), count)
+                    .filter(status -> status == 200)
+                    .count()
+                    .block();
+            return answered == null ? 0 : answered.intValue();
+        } finally {
+            connections.disposeLater().block();
+        }
+    }
+
+    enum Mode {
+        SERVLET, VIRTUAL_THREADS, REACTIVE
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Relays answers of a stub server through a passthrough client and writes them as the gateway would.
+ */
+public class BaseClientTest {
+    private static final int LARGE_BODY_CHUNKS = 256;
+
+    private final LoopResources loops = LoopResources.create("client-test");
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final UpstreamBodyHttpMessageConverter converter = new UpstreamBodyHttpMessageConverter();
+    private DisposableServer server;
+    private UpstreamTransport transport;
+    private TestClient client;
+
+    @BeforeEach
+    public void setUp() {
+        server = HttpServer.create()
+                .runOn(loops)
+                .port(0)
+                .route(routes -> routes
+                        .get("/items/1", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .header("Connection", "keep-alive")
+                                .header("Keep-Alive", "timeout=5")
+                                .header("X-Request-Id", "abc")
+                                .sendString(Flux.just("{\"id\":", "1}"), StandardCharsets.UTF_8))
+                        .get("/items/404", (request, response) -> response.status(404)
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just("{\"error\":\"Вещь не найдена\"}"), StandardCharsets.UTF_8))
+                        .get("/items/empty", (request, response) -> response.status(204).send())
+                        .get("/items/large", (request, response) -> response
+                                .header("Content-Type", "application/octet-stream")
+                                .sendByteArray(Flux.range(0, LARGE_BODY_CHUNKS).map(i -> new byte[4096]))))
+                .bindNow();
+        transport = new UpstreamTransport(registry, new BufferPool(1024, 4), 1, 1, Duration.ofSeconds(2),
+                Duration.ofSeconds(2), Duration.ofSeconds(10), Duration.ofSeconds(10), Duration.ofSeconds(15),
+                false, true);
+        client = new TestClient(new RestTemplateBuilder().rootUri("http://localhost:" + server.port()), transport);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        transport.close();
+        server.disposeNow();
+        loops.dispose();
+    }
+
+    @Test
+    public void testAnswerIsRelayedWithoutHopByHopHeaders() throws IOException {
+        ResponseEntity<Object> response = client.fetch("/items/1");
+
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(response.getHeaders().getFirst("X-Request-Id")).isEqualTo("abc");
+        assertThat(response.getHeaders().keySet()).allSatisfy(name ->
+                assertThat(BaseClient.HOP_BY_HOP_HEADERS).doesNotContain(name.toLowerCase(Locale.ROOT)));
+        assertThat(write(response)).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    public void testErrorAnswerKeepsStatusAndBody() throws IOException {
+        ResponseEntity<Object> response = client.fetch("/items/404");
+
+        assertThat(response.getStatusCodeValue()).isEqualTo(404);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(write(response)).isEqualTo("{\"error\":\"Вещь не найдена\"}");
+    }
+
+    @Test
+    public void testAnswerWithoutContentTypeIsReadAndReleased() {
+        ResponseEntity<Object> response = client.fetch("/items/empty");
+
+        assertThat(response.getStatusCodeValue()).isEqualTo(204);
+        assertThat(response.hasBody()).isFalse();
+        assertThat(connections("leased")).isZero();
+    }
+
+    @Test
+    public void testConnectionIsReleasedWhenTheClientGoesAwayMidBody() {
+        ResponseEntity<Object> response = client.fetch("/items/large");
+        assertThat(connections("leased")).isEqualTo(1);
+
+        assertThatThrownBy(() -> converter.write((UpstreamBody) response.getBody(), null, new DisconnectingMessage()))
+                .isInstanceOf(IOException.class);
+
+        assertThat(connections("leased")).isZero();
+        assertThat(client.fetch("/items/1").getStatusCodeValue()).isEqualTo(200);
+    }
+
+    private String write(ResponseEntity<Object> response) throws IOException {
+        assertThat(response.getBody()).isInstanceOf(UpstreamBody.class);
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write((UpstreamBody) response.getBody(), null, message);
+        assertThat(connections("leased")).isZero();
+        return message.getBodyAsString(StandardCharsets.UTF_8);
+    }
+
+    private double connections(String state) {
+        return registry.get("gateway.upstream.connections").tag("state", state).gauge().value();
+    }
+
+    private static final class TestClient extends BaseClient {
+        TestClient(RestTemplateBuilder builder, UpstreamTransport transport) {
+            super(builder, transport, ResponseCache.disabled());
+        }
+
+        ResponseEntity<Object> fetch(String path) {
+            return super.get(path, 1L, null);
+        }
+    }
+
+    /**
+     * A client that disconnects after the first write.
+     */
+    private static final class DisconnectingMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return new OutputStream() {
+                private boolean written;
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    if (written) {
+                        throw new IOException("Broken pipe");
+                    }
+                    written = true;
+                }
+            };
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.client.ResponseCache.Route.ITEM;
+import static ru.practicum.shareit.client.ResponseCache.Route.ITEM_SEARCH;
+import static ru.practicum.shareit.client.ResponseCache.Route.REQUEST_ALL;
+
+public class ResponseCacheTest {
+    private static final URI ITEM_1 = URI.create("http://localhost:9090/items/1");
+    private static final URI ITEM_11 = URI.create("http://localhost:9090/items/11");
+    private static final URI SEARCH = URI.create("http://localhost:9090/items/search?text=drill&from=0&size=10");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final ResponseCache cache = new ResponseCache(true, DataSize.ofKilobytes(64), DataSize.ofKilobytes(8),
+            Map.of(ITEM, Duration.ofSeconds(30), ITEM_SEARCH, Duration.ofSeconds(60),
+                    REQUEST_ALL, Duration.ofSeconds(30)), ticker);
+
+    @Test
+    public void testItemViewsAreKeptPerUser() {
+        store(ITEM, ITEM_1, 1, 200, "owner view");
+
+        assertThat(body(cache.key(ITEM, ITEM_1, 1))).isEqualTo("owner view");
+        assertThat(cache.get(cache.key(ITEM, ITEM_1, 2))).isNull();
+    }
+
+    @Test
+    public void testSearchIsSharedByAllUsers() {
+        store(ITEM_SEARCH, SEARCH, 1, 200, "[]");
+
+        assertThat(body(cache.key(ITEM_SEARCH, SEARCH, 2))).isEqualTo("[]");
+    }
+
+    @Test
+    public void testEntriesExpireAfterTheirRoutesTtl() {
+        ResponseCache.Key item = store(ITEM, ITEM_1, 1, 200, "item");
+        ResponseCache.Key search = store(ITEM_SEARCH, SEARCH, 1, 200, "[]");
+
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThat(cache.get(item)).isNull();
+        assertThat(cache.get(search)).isNotNull();
+    }
+
+    @Test
+    public void testOnlyOkAnswersWithinTheEntryLimitAreKept() {
+        ResponseCache.Key missing = store(ITEM, ITEM_1, 1, 404, "{\"error\":\"not found\"}");
+        ResponseCache.Key large = store(ITEM_SEARCH, SEARCH, 1, 200, "x".repeat(9 * 1024));
+
+        assertThat(cache.get(missing)).isNull();
+        assertThat(cache.get(large)).isNull();
+    }
+
+    @Test
+    public void testPurgeItemDropsThatItemForEveryUser() {
+        store(ITEM, ITEM_1, 1, 200, "one for 1");
+        store(ITEM, ITEM_1, 2, 200, "one for 2");
+        store(ITEM, ITEM_11, 1, 200, "eleven");
+        store(ITEM_SEARCH, SEARCH, 1, 200, "[]");
+
+        cache.purgeItem(1);
+
+        assertThat(cache.get(cache.key(ITEM, ITEM_1, 1))).isNull();
+        assertThat(cache.get(cache.key(ITEM, ITEM_1, 2))).isNull();
+        assertThat(body(cache.key(ITEM, ITEM_11, 1))).isEqualTo("eleven");
+        assertThat(body(cache.key(ITEM_SEARCH, SEARCH, 1))).isEqualTo("[]");
+    }
+
+    @Test
+    public void testAnswerReadBeforeAPurgeIsNotKept() {
+        ResponseCache.Key search = cache.key(ITEM_SEARCH, SEARCH, 1);
+        long generation = cache.generation(ITEM_SEARCH);
+
+        cache.purge(ITEM_SEARCH);
+        cache.put(search, generation, 200, json(), bytes("[]"));
+
+        assertThat(cache.get(search)).isNull();
+    }
+
+    @Test
+    public void testSizeIsBoundedByBytes() {
+        for (int i = 0; i < 100; i++) {
+            store(ITEM, URI.create("http://localhost:9090/items/" + i), 1, 200, "x".repeat(4 * 1024));
+        }
+        cache.cleanUp();
+
+        long kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.get(cache.key(ITEM, URI.create("http://localhost:9090/items/" + i), 1)) != null) {
+                kept++;
+            }
+        }
+        assertThat(kept).isBetween(1L, 16L);
+    }
+
+    @Test
+    public void testDisabledCacheKeepsNothing() {
+        ResponseCache disabled = ResponseCache.disabled();
+        ResponseCache.Key key = disabled.key(ITEM, ITEM_1, 1);
+
+        disabled.put(key, disabled.generation(ITEM), 200, json(), bytes("item"));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.get(key)).isNull();
+    }
+
+    private ResponseCache.Key store(ResponseCache.Route route, URI uri, long userId, int status, String body) {
+        ResponseCache.Key key = cache.key(route, uri, userId);
+        cache.put(key, cache.generation(route), status, json(), bytes(body));
+        return key;
+    }
+
+    private String body(ResponseCache.Key key) {
+        ResponseCache.CachedResponse response = cache.get(key);
+        assertThat(response).isNotNull();
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static HttpHeaders json() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
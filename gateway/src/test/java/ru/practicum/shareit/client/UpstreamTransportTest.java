@@ -0,0 +1,173 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Sends requests through both transports to a stub server, which answers {@code /digest} with the SHA-256 of
+ * the body it read, {@code /reject} with 413 without reading the body, and anything else with a short text.
+ */
+public class UpstreamTransportTest {
+    private static final int UPLOAD_SIZE = 1024 * 1024 + 17;
+
+    private final LoopResources loops = LoopResources.create("transport-test");
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private DisposableServer server;
+    private UpstreamTransport transport;
+
+    @BeforeEach
+    public void setUp() {
+        server = HttpServer.create()
+                .runOn(loops)
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .handle((request, response) -> {
+                    if (request.uri().equals("/digest")) {
+                        return response.sendString(request.receive().aggregate().asByteArray()
+                                .defaultIfEmpty(new byte[0])
+                                .map(UpstreamTransportTest::sha256), StandardCharsets.UTF_8);
+                    }
+                    if (request.uri().equals("/reject")) {
+                        return response.status(413).sendString(Mono.just("Too large"), StandardCharsets.UTF_8);
+                    }
+                    return response.sendString(Mono.just("pong"), StandardCharsets.UTF_8);
+                })
+                .bindNow();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (transport != null) {
+            transport.close();
+        }
+        server.disposeNow();
+        loops.dispose();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testStreamedUploadLargerThanAChunkArrivesWhole(boolean h2c) throws IOException {
+        transport = transport(h2c, 10, Duration.ofSeconds(5));
+        byte[] upload = new byte[UPLOAD_SIZE];
+        new Random(42).nextBytes(upload);
+
+        ClientHttpRequest request = request("/digest");
+        ((StreamingHttpOutputMessage) request).setBody(body -> {
+            for (int offset = 0; offset < upload.length; offset += 1000) {
+                body.write(upload, offset, Math.min(1000, upload.length - offset));
+            }
+        });
+
+        try (ClientHttpResponse response = request.execute()) {
+            assertThat(response.getRawStatusCode()).isEqualTo(200);
+            assertThat(StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8))
+                    .isEqualTo(sha256(upload));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testServerAnsweringBeforeReadingTheBodyDoesNotHang(boolean h2c) {
+        transport = transport(h2c, 10, Duration.ofSeconds(5));
+        byte[] chunk = new byte[8192];
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            ClientHttpRequest request = request("/reject");
+            ((StreamingHttpOutputMessage) request).setBody(body -> {
+                for (int i = 0; i < 2048; i++) {
+                    body.write(chunk);
+                }
+            });
+            try (ClientHttpResponse response = request.execute()) {
+                assertThat(response.getRawStatusCode()).isEqualTo(413);
+            } catch (IOException e) {
+                // the server may close the connection under the body instead
+            }
+        });
+    }
+
+    @Test
+    public void testPoolReportsConnectionsAndLeaseWaits() throws IOException {
+        transport = transport(false, 1, Duration.ofMillis(100));
+
+        try (ClientHttpResponse held = request("/ping").execute()) {
+            assertThat(held.getRawStatusCode()).isEqualTo(200);
+            assertThat(connections("leased")).isEqualTo(1);
+            assertThatThrownBy(() -> request("/ping").execute()).isInstanceOf(IOException.class);
+        }
+
+        assertThat(connections("leased")).isZero();
+        assertThat(connections("available")).isEqualTo(1);
+        assertThat(connections("pending")).isZero();
+        assertThat(registry.get("gateway.upstream.connections.max").gauge().value()).isEqualTo(1);
+        assertThat(leaseWaits("leased")).isEqualTo(1);
+        assertThat(leaseWaits("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    public void testH2cCountsActiveRequests() throws IOException {
+        transport = transport(true, 1, Duration.ofSeconds(5));
+
+        try (ClientHttpResponse response = request("/ping").execute()) {
+            assertThat(StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8)).isEqualTo("pong");
+            assertThat(registry.get("gateway.upstream.requests.active").gauge().value()).isEqualTo(1);
+        }
+
+        assertThat(registry.get("gateway.upstream.requests.active").gauge().value()).isZero();
+    }
+
+    private UpstreamTransport transport(boolean h2c, int maxConnections, Duration leaseTimeout) {
+        return new UpstreamTransport(registry, new BufferPool(8192, 4), maxConnections, maxConnections,
+                Duration.ofSeconds(2), leaseTimeout, Duration.ofSeconds(10), Duration.ofSeconds(10),
+                Duration.ofSeconds(15), h2c, true);
+    }
+
+    private ClientHttpRequest request(String path) throws IOException {
+        return transport.streamingRequestFactory()
+                .createRequest(URI.create("http://localhost:" + server.port() + path), HttpMethod.POST);
+    }
+
+    private double connections(String state) {
+        return registry.get("gateway.upstream.connections").tag("state", state).gauge().value();
+    }
+
+    private long leaseWaits(String outcome) {
+        return registry.get("gateway.upstream.lease.wait").tag("outcome", outcome).timer().count();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -14,8 +14,12 @@ public class Constants {
     public static final String BOOKINGS_PATH = "/bookings";
     public static final String BOOKING_ID_PATH = "/{bookingId}";
     public static final String OWNER = "/owner";
+    public static final String OWNER_STREAM = "/owner/stream";
+    public static final String BATCH = "/batch";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     //Request
     public static final String REQUEST_PATH = "/requests";
     public static final String ALL = "/all";
+    public static final String MATCHES = "/matches";
     public static final String BY_ID = "/{requestId}";
 }
\ No newline at end of file
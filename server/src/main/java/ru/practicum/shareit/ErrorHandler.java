@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.shareit.booking.BookingConflictException;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.ValidationException;
@@ -58,4 +59,11 @@ public class ErrorHandler {
         log.error("Illegal state: {}", e.getMessage(), e);
         return Map.of("error", e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleBookingConflict(final BookingConflictException e) {
+        log.error("Booking conflict: {}", e.getMessage(), e);
+        return Map.of("error", e.getMessage(), "nextFreeSlot", e.getNextFreeSlot().toString());
+    }
 }
@@ -0,0 +1,62 @@
+package ru.practicum.shareit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * With {@code spring.threads.virtual.enabled}, every request, and every streamed response such as an import
+ * report, runs on a new virtual thread instead of a pooled platform thread, so a request blocked on JDBC holds
+ * no thread of Tomcat's pool. Database concurrency is then bounded by the Hikari pool alone. The pool is kept at
+ * a fixed {@code maximum-pool-size}, sized for the database rather than for the clients, and requests beyond
+ * it wait up to {@code connection-timeout} for a connection. Needs Java 21.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer, DisposableBean {
+    private final ExecutorService executor = VirtualThreads.newPerTaskExecutor("request-");
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadRequests() {
+        log.info("Handling requests on virtual threads");
+        return factory -> factory.addProtocolHandlerCustomizers(handler -> handler.setExecutor(executor));
+    }
+
+    @Bean
+    public static BeanPostProcessor fixedSizeConnectionPool() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    HikariDataSource pool = (HikariDataSource) bean;
+                    pool.setMinimumIdle(pool.getMaximumPoolSize());
+                    log.info("Connection pool fixed at {} connections, waiting at most {} ms for one",
+                            pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
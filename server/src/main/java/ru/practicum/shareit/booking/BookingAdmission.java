@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Everything booking creation reads: the item with its owner, locked until the booking is saved,
+ * and the booker, whose name is {@code null} when there is no such user.
+ */
+public interface BookingAdmission {
+    Long getItemId();
+
+    String getItemName();
+
+    String getItemDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+
+    Long getOwnerId();
+
+    String getOwnerName();
+
+    String getOwnerEmail();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the booking service when a booking is created ({@code WAITING}) or changes status.
+ */
+@Value
+public class BookingChangedEvent {
+    Long bookingId;
+
+    Long itemId;
+
+    Long ownerId;
+
+    Long bookerId;
+
+    LocalDateTime start;
+
+    LocalDateTime end;
+
+    BookingStatus status;
+
+    public static BookingChangedEvent of(Booking booking) {
+        return new BookingChangedEvent(booking.getId(), booking.getItem().getId(),
+                booking.getItem().getOwner().getId(), booking.getBooker().getId(), booking.getStart(),
+                booking.getEnd(), booking.getStatus());
+    }
+
+    public boolean isCreated() {
+        return status == BookingStatus.WAITING;
+    }
+}
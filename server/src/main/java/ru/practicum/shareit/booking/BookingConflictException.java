@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class BookingConflictException extends RuntimeException {
+    private final LocalDateTime nextFreeSlot;
+
+    public BookingConflictException(String message, LocalDateTime nextFreeSlot) {
+        super(message);
+        this.nextFreeSlot = nextFreeSlot;
+    }
+}
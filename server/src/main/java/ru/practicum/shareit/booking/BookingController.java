@@ -1,15 +1,22 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.Constants;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoForAnswer;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.OwnerBookingStream;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
 import java.nio.file.AccessDeniedException;
 import java.util.List;
 
@@ -19,6 +26,7 @@ import java.util.List;
 @RequestMapping(path = Constants.BOOKINGS_PATH)
 public class BookingController {
     private final BookingService service;
+    private final OwnerBookingStream ownerStream;
 
     @PostMapping
     public ResponseEntity<BookingDtoForAnswer> add(@Valid @RequestBody BookingDto booking,
@@ -33,6 +41,14 @@ public class BookingController {
         return ResponseEntity.ok(service.approve(bookingId, approved, userId));
     }
 
+    @PatchMapping(Constants.BATCH)
+    public ResponseEntity<List<BookingDecisionResultDto>> decideAll(
+            @RequestBody @NotEmpty(message = "Пакет решений пуст")
+            @Size(max = 100, message = "В пакете не больше 100 решений") List<@Valid BookingDecisionDto> decisions,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return ResponseEntity.ok(service.decideAll(decisions, userId));
+    }
+
     @GetMapping(Constants.BOOKING_ID_PATH)
     public ResponseEntity<BookingDtoForAnswer> getById(@PathVariable Long bookingId,
                                                        @RequestHeader("X-Sharer-User-Id") Long userId) throws AccessDeniedException {
@@ -43,15 +59,39 @@ public class BookingController {
     public ResponseEntity<List<BookingDtoForAnswer>> getByUser(@RequestParam(defaultValue = "0") Long from,
                                                                @RequestParam(defaultValue = "100") Long size,
                                                                @RequestParam(defaultValue = "ALL") String state,
+                                                               @RequestParam(required = false) String after,
                                                                @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ResponseEntity.ok(service.getByUser(from, size, state, userId));
+        List<BookingDtoForAnswer> bookings = after == null
+                ? service.getByUser(from, size, state, userId)
+                : service.getByUserAfter(after, size, state, userId);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping(Constants.OWNER)
     public ResponseEntity<List<BookingDtoForAnswer>> getByOwner(@RequestParam(defaultValue = "0") Long from,
                                                                 @RequestParam(defaultValue = "100") Long size,
                                                                 @RequestParam(defaultValue = "ALL") String state,
+                                                                @RequestParam(required = false) String after,
                                                                 @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ResponseEntity.ok(service.getByOwner(from, size, state, userId));
+        List<BookingDtoForAnswer> bookings = after == null
+                ? service.getByOwner(from, size, state, userId)
+                : service.getByOwnerAfter(after, size, state, userId);
+        return withNextCursor(bookings, size);
+    }
+
+    @GetMapping(path = Constants.OWNER_STREAM, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOwnerBookings(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                          @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return ownerStream.subscribe(ownerId, lastEventId);
+    }
+
+    private static ResponseEntity<List<BookingDtoForAnswer>> withNextCursor(List<BookingDtoForAnswer> bookings, Long size) {
+        if (bookings.isEmpty() || bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingCursor next = BookingCursor.of(bookings.get(bookings.size() - 1));
+        return ResponseEntity.ok()
+                .header(Constants.NEXT_CURSOR_HEADER, next.encode())
+                .body(bookings);
     }
 }
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.ToString;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filter and ordering of a booking list, translated into one SQL statement by {@link BookingRepositoryCustom}.
+ * Unset bounds are not applied; all time bounds are exclusive.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingQuery {
+    private final BookingRole role;
+
+    private final Long userId;
+
+    @Singular
+    private final Set<BookingStatus> statuses;
+
+    private final Long itemId;
+
+    private final LocalDateTime startAfter;
+
+    private final LocalDateTime startBefore;
+
+    private final LocalDateTime endAfter;
+
+    private final LocalDateTime endBefore;
+
+    @Builder.Default
+    private final Order order = Order.START_DESC;
+
+    public static BookingQuery of(BookingRole role, Long userId, BookingState state, LocalDateTime now) {
+        BookingQueryBuilder query = BookingQuery.builder()
+                .role(role)
+                .userId(userId);
+        switch (state) {
+            case CURRENT:
+                query.startBefore(now).endAfter(now);
+                break;
+            case PAST:
+                query.endBefore(now);
+                break;
+            case FUTURE:
+                query.startAfter(now);
+                break;
+            case WAITING:
+                query.status(BookingStatus.WAITING);
+                break;
+            case REJECTED:
+                query.status(BookingStatus.REJECTED);
+                break;
+            case CANCELED:
+                query.status(BookingStatus.CANCELED);
+                break;
+        }
+        return query.build();
+    }
+
+    public enum Order {
+        START_DESC,
+        START_ASC
+    }
+}
@@ -1,41 +1,78 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.index.BookingInterval;
+import ru.practicum.shareit.item.suggest.ItemBookingCount;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Page<Booking> findAllByBooker_IdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    Page<Booking> findAllByBooker_IdAndStartIsBeforeAndEndIsAfter(Long bookerId, LocalDateTime now, LocalDateTime now2, Pageable pageable);
-
-    Page<Booking> findAllByBooker_IdAndEndIsBeforeOrderByStartDesc(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByBooker_IdAndStartIsAfterOrderByStartDesc(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByBooker_IdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
-
-    Page<Booking> findAllByItem_Owner_IdOrderByStartDesc(Long ownerId, Pageable pageable);
-
-    Page<Booking> findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(Long ownerId, LocalDateTime now, LocalDateTime now2, Pageable pageable);
-
-    Page<Booking> findAllByItem_Owner_IdAndEndIsBeforeOrderByStartDesc(Long ownerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByItem_Owner_IdAndStartIsAfterOrderByStartDesc(Long ownerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByItem_Owner_IdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findAllByItem_idAndStartIsAfterOrderByStartAsc(Long itemId, LocalDateTime now);
-
-    List<Booking> findAllByItem_IdAndStartIsBeforeOrderByStartDesc(Long itemId, LocalDateTime now);
-
-    Boolean existsByItem_IdAndBooker_IdAndEndIsBeforeAndStatus(Long itemId, Long userId, LocalDateTime now, BookingStatus status);
-
-    List<Booking> findAllByItem_IdIn(List<Long> itemIds);
-
-    List<Booking> findAllByItem_IdInAndStartIsBeforeOrderByStartDesc(List<Long> itemIds, LocalDateTime now);
+import java.util.Optional;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Query(value = "SELECT i.id AS itemId, i.name AS itemName, i.description AS itemDescription, "
+            + "i.available AS available, i.request_id AS requestId, i.owner_id AS ownerId, "
+            + "(SELECT u.name FROM users u WHERE u.id = i.owner_id) AS ownerName, "
+            + "(SELECT u.email FROM users u WHERE u.id = i.owner_id) AS ownerEmail, "
+            + "(SELECT u.name FROM users u WHERE u.id = :bookerId) AS bookerName, "
+            + "(SELECT u.email FROM users u WHERE u.id = :bookerId) AS bookerEmail "
+            + "FROM items i WHERE i.id = :itemId FOR UPDATE", nativeQuery = true)
+    Optional<BookingAdmission> findAdmission(@Param("itemId") Long itemId, @Param("bookerId") Long bookerId);
+
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_OWNER_AND_BOOKER)
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(Booking.WITH_ITEM_OWNER_AND_BOOKER)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids")
+    List<Booking> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves a WAITING booking of an item owned by {@code ownerId} to {@code status}; returns 0 if it is not one.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id = :id "
+            + "AND b.status = ru.practicum.shareit.booking.dto.BookingStatus.WAITING "
+            + "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int decideWaiting(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("status") BookingStatus status);
+
+    @EntityGraph(Booking.WITH_ITEM_OWNER_AND_BOOKER)
+    @Query("SELECT b FROM Booking b WHERE b.item.id = :itemId AND b.start > :now ORDER BY b.start ASC")
+    List<Booking> findAllByItem_idAndStartIsAfterOrderByStartAsc(@Param("itemId") Long itemId,
+                                                                 @Param("now") LocalDateTime now);
+
+    @EntityGraph(Booking.WITH_ITEM_OWNER_AND_BOOKER)
+    @Query("SELECT b FROM Booking b WHERE b.item.id = :itemId AND b.start < :now ORDER BY b.start DESC")
+    List<Booking> findAllByItem_IdAndStartIsBeforeOrderByStartDesc(@Param("itemId") Long itemId,
+                                                                   @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.booker.id = :userId AND b.end < :now AND b.status = :status")
+    Boolean existsByItem_IdAndBooker_IdAndEndIsBeforeAndStatus(@Param("itemId") Long itemId,
+                                                               @Param("userId") Long userId,
+                                                               @Param("now") LocalDateTime now,
+                                                               @Param("status") BookingStatus status);
+
+    /**
+     * For each item, the bookings with the latest start before {@code now} and the earliest start after it.
+     */
+    @EntityGraph(Booking.WITH_ITEM_OWNER_AND_BOOKER)
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds AND ("
+            + "b.start = (SELECT MAX(l.start) FROM Booking l WHERE l.item.id = b.item.id AND l.start < :now) "
+            + "OR b.start = (SELECT MIN(n.start) FROM Booking n WHERE n.item.id = b.item.id AND n.start > :now))")
+    List<Booking> findLastAndNextByItemIdIn(@Param("itemIds") List<Long> itemIds, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.item.id AS itemId, COUNT(b) AS bookings FROM Booking b GROUP BY b.item.id")
+    List<ItemBookingCount> countBookingsByItem();
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end " +
+            "FROM Booking b " +
+            "WHERE b.status IN :statuses AND b.end > :now")
+    List<BookingInterval> findIntervalsByStatusInAndEndAfter(@Param("statuses") Collection<BookingStatus> statuses,
+                                                             @Param("now") LocalDateTime now);
 }
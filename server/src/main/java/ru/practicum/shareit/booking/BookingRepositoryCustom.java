@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface BookingRepositoryCustom {
+    Slice<Booking> findByQuery(BookingQuery query, BookingCursor after, long offset, int size);
+
+    /**
+     * Sets each WAITING booking of an item owned by {@code ownerId} to its status with one JDBC batch of
+     * conditional updates and returns the ids that were updated. Detaches these bookings from the persistence
+     * context, whose copies of them are stale afterwards.
+     */
+    Set<Long> decideAllWaiting(Map<Long, BookingStatus> decisions, Long ownerId);
+}
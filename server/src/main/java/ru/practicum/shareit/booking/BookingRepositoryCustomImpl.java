@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.Session;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.item.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final String DECIDE_WAITING = "UPDATE bookings SET status = ? WHERE id = ? AND status = 'WAITING' "
+            + "AND item_id IN (SELECT id FROM items WHERE owner_id = ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Slice<Booking> findByQuery(BookingQuery query, BookingCursor after, long offset, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> criteria = cb.createQuery(Booking.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item", JoinType.INNER);
+        item.fetch("owner", JoinType.INNER);
+        booking.fetch("booker", JoinType.INNER);
+
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+        boolean descending = query.getOrder() == BookingQuery.Order.START_DESC;
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getRole() == BookingRole.OWNER) {
+            predicates.add(cb.equal(item.get("owner").get("id"), query.getUserId()));
+        } else {
+            predicates.add(cb.equal(booking.get("booker").get("id"), query.getUserId()));
+        }
+        if (!query.getStatuses().isEmpty()) {
+            predicates.add(booking.get("status").in(query.getStatuses()));
+        }
+        if (query.getItemId() != null) {
+            predicates.add(cb.equal(booking.get("item").get("id"), query.getItemId()));
+        }
+        if (query.getStartAfter() != null) {
+            predicates.add(cb.greaterThan(start, query.getStartAfter()));
+        }
+        if (query.getStartBefore() != null) {
+            predicates.add(cb.lessThan(start, query.getStartBefore()));
+        }
+        if (query.getEndAfter() != null) {
+            predicates.add(cb.greaterThan(end, query.getEndAfter()));
+        }
+        if (query.getEndBefore() != null) {
+            predicates.add(cb.lessThan(end, query.getEndBefore()));
+        }
+        if (after != null) {
+            Predicate sameStart = cb.equal(start, after.getStart());
+            predicates.add(descending
+                    ? cb.or(cb.lessThan(start, after.getStart()), cb.and(sameStart, cb.lessThan(id, after.getId())))
+                    : cb.or(cb.greaterThan(start, after.getStart()), cb.and(sameStart, cb.greaterThan(id, after.getId()))));
+        }
+
+        criteria.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(descending
+                        ? List.of(cb.desc(start), cb.desc(id))
+                        : List.of(cb.asc(start), cb.asc(id)));
+
+        List<Booking> bookings = entityManager.createQuery(criteria)
+                .setFirstResult((int) offset)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = bookings.size() > size;
+        List<Booking> content = hasNext ? bookings.subList(0, size) : bookings;
+        return new SliceImpl<>(content, PageRequest.of(0, Math.max(size, 1)), hasNext);
+    }
+
+    @Override
+    public Set<Long> decideAllWaiting(Map<Long, BookingStatus> decisions, Long ownerId) {
+        if (decisions.isEmpty()) {
+            return Set.of();
+        }
+        entityManager.flush();
+        List<Long> ids = new ArrayList<>(decisions.keySet());
+        int[] counts = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(DECIDE_WAITING)) {
+                for (Long id : ids) {
+                    statement.setString(1, decisions.get(id).name());
+                    statement.setLong(2, id);
+                    statement.setLong(3, ownerId);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        for (Long id : ids) {
+            entityManager.detach(entityManager.getReference(Booking.class, id));
+        }
+        Set<Long> updated = new HashSet<>();
+        List<Long> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                updated.add(ids.get(i));
+            } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(ids.get(i));
+            }
+        }
+        if (!unknown.isEmpty()) {
+            // the driver ran the statement but did not say whether it matched; the status tells
+            List<Object[]> statuses = entityManager
+                    .createQuery("SELECT b.id, b.status FROM Booking b WHERE b.id IN :ids", Object[].class)
+                    .setParameter("ids", unknown)
+                    .getResultList();
+            for (Object[] status : statuses) {
+                if (status[1] == decisions.get((Long) status[0])) {
+                    updated.add((Long) status[0]);
+                }
+            }
+        }
+        return updated;
+    }
+}
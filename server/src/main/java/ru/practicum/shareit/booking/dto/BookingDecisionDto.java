@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotNull;
+
+@ToString
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionDto {
+    @NotNull(message = "Не указана бронь")
+    private Long bookingId;
+
+    @NotNull(message = "Не указано решение по брони")
+    private Boolean approved;
+}
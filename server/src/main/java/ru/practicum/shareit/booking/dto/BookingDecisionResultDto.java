@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+
+/**
+ * Outcome of one decision of a batch: the new status of the booking, or the reason it was left unchanged.
+ */
+@ToString
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionResultDto {
+    private Long bookingId;
+
+    private BookingStatus status;
+
+    private String error;
+}
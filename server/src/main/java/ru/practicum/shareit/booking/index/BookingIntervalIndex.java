@@ -0,0 +1,172 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingConflictException;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-item index of WAITING and APPROVED bookings used to reject overlapping reservations
+ * without scanning the bookings table. Changes made inside a transaction are undone if it rolls back. Bookings
+ * that have ended are dropped from an item's tree whenever another booking of the item is added, and the bookings
+ * of a removed user, as booker or as owner of the item, once the removal commits.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    public static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository repository;
+    private final Map<Long, ItemIntervalTree> trees = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        List<BookingInterval> intervals = repository.findIntervalsByStatusInAndEndAfter(ACTIVE_STATUSES, LocalDateTime.now());
+        for (BookingInterval interval : intervals) {
+            tree(interval.getItemId()).add(interval.getId(), interval.getStart(), interval.getEnd());
+        }
+        log.info("Booking interval index loaded: {} bookings for {} items", intervals.size(), trees.size());
+    }
+
+    public void checkAvailable(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervalTree tree = trees.get(itemId);
+        if (tree == null) {
+            return;
+        }
+        tree.lock.lock();
+        try {
+            ensureFree(tree, start, end);
+        } finally {
+            tree.lock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #checkAvailable(Long, LocalDateTime, LocalDateTime)} for a booking that may be in the index
+     * already; one that is does not conflict with anything.
+     */
+    public void checkAvailable(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervalTree tree = trees.get(itemId);
+        if (tree == null) {
+            return;
+        }
+        tree.lock.lock();
+        try {
+            if (!tree.contains(bookingId)) {
+                ensureFree(tree, start, end);
+            }
+        } finally {
+            tree.lock.unlock();
+        }
+    }
+
+    public void add(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervalTree tree = tree(itemId);
+        tree.lock.lock();
+        try {
+            if (tree.contains(bookingId)) {
+                return;
+            }
+            tree.removeEndedBy(LocalDateTime.now());
+            ensureFree(tree, start, end);
+            tree.add(bookingId, start, end);
+        } finally {
+            tree.lock.unlock();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        removeNow(itemId, bookingId);
+                    }
+                }
+            });
+        }
+    }
+
+    public void remove(Long itemId, Long bookingId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeNow(itemId, bookingId);
+                }
+            });
+        } else {
+            removeNow(itemId, bookingId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        event.getItemIds().forEach(trees::remove);
+        event.getBookings().forEach((bookingId, itemId) -> removeNow(itemId, bookingId));
+    }
+
+    public LocalDateTime nextFreeSlot(Long itemId, LocalDateTime after, Duration duration) {
+        ItemIntervalTree tree = trees.get(itemId);
+        if (tree == null) {
+            return after;
+        }
+        tree.lock.lock();
+        try {
+            return tree.nextFreeSlot(after, duration);
+        } finally {
+            tree.lock.unlock();
+        }
+    }
+
+    int size(Long itemId) {
+        ItemIntervalTree tree = trees.get(itemId);
+        if (tree == null) {
+            return 0;
+        }
+        tree.lock.lock();
+        try {
+            return tree.size();
+        } finally {
+            tree.lock.unlock();
+        }
+    }
+
+    private void removeNow(Long itemId, Long bookingId) {
+        ItemIntervalTree tree = trees.get(itemId);
+        if (tree != null) {
+            tree.lock.lock();
+            try {
+                tree.remove(bookingId);
+            } finally {
+                tree.lock.unlock();
+            }
+        }
+    }
+
+    private ItemIntervalTree tree(Long itemId) {
+        return trees.computeIfAbsent(itemId, id -> new ItemIntervalTree());
+    }
+
+    private static void ensureFree(ItemIntervalTree tree, LocalDateTime start, LocalDateTime end) {
+        if (tree.findOverlap(start, end) != null) {
+            LocalDateTime nextFreeSlot = tree.nextFreeSlot(start, Duration.between(start, end));
+            throw new BookingConflictException("Предмет уже забронирован на это время", nextFreeSlot);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking.index;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Treap of half-open booking intervals {@code [start, end)} of a single item, augmented with the maximum end
+ * of every subtree so that an overlap lookup only descends one path. Nodes are also queued by end, so that
+ * intervals that have ended can be dropped without a walk of the tree. Not thread-safe: callers hold {@link #lock}.
+ */
+class ItemIntervalTree {
+    final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Node> byBooking = new HashMap<>();
+    private final PriorityQueue<Node> byEnd = new PriorityQueue<>(Comparator.comparing((Node node) -> node.end));
+    private Node root;
+
+    int size() {
+        return byBooking.size();
+    }
+
+    boolean contains(Long bookingId) {
+        return byBooking.containsKey(bookingId);
+    }
+
+    void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        remove(bookingId);
+        Node node = new Node(bookingId, start, end);
+        byBooking.put(bookingId, node);
+        byEnd.add(node);
+        root = insert(root, node);
+    }
+
+    void remove(Long bookingId) {
+        Node node = byBooking.remove(bookingId);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Drops the intervals that end at or before {@code moment}. Nodes removed earlier are still queued and are
+     * discarded here as well.
+     */
+    void removeEndedBy(LocalDateTime moment) {
+        while (!byEnd.isEmpty() && !byEnd.peek().end.isAfter(moment)) {
+            Node node = byEnd.poll();
+            if (byBooking.get(node.bookingId) == node) {
+                byBooking.remove(node.bookingId);
+                root = delete(root, node);
+            }
+        }
+    }
+
+    /**
+     * Returns any interval overlapping {@code [start, end)}, or {@code null} if the range is free.
+     */
+    Node findOverlap(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && start.isBefore(node.end)) {
+                return node;
+            }
+            if (node.left != null && node.left.maxEnd.isAfter(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Earliest moment not before {@code after} at which a booking of the given duration fits.
+     */
+    LocalDateTime nextFreeSlot(LocalDateTime after, Duration duration) {
+        LocalDateTime candidate = after;
+        Node overlap = findOverlap(candidate, candidate.plus(duration));
+        while (overlap != null) {
+            candidate = overlap.end;
+            overlap = findOverlap(candidate, candidate.plus(duration));
+        }
+        return candidate;
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.compareTo(node) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, Node deleted) {
+        if (node == null) {
+            return null;
+        }
+        if (node == deleted) {
+            return merge(node.left, node.right);
+        }
+        if (deleted.compareTo(node) < 0) {
+            node.left = delete(node.left, deleted);
+        } else {
+            node.right = delete(node.right, deleted);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    static final class Node implements Comparable<Node> {
+        final Long bookingId;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        LocalDateTime maxEnd;
+        Node left;
+        Node right;
+
+        Node(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : bookingId.compareTo(other.bookingId);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoForAnswer;
 
@@ -11,9 +13,15 @@ public interface BookingService {
 
     BookingDtoForAnswer approve(Long id, Boolean isApproved, Long userId) throws AccessDeniedException;
 
+    List<BookingDecisionResultDto> decideAll(List<BookingDecisionDto> decisions, Long userId);
+
     BookingDtoForAnswer getById(Long id, Long userId) throws AccessDeniedException;
 
     List<BookingDtoForAnswer> getByUser(Long from, Long size, String state, Long userId);
 
     List<BookingDtoForAnswer> getByOwner(Long from, Long size, String state, Long userId);
+
+    List<BookingDtoForAnswer> getByUserAfter(String after, Long size, String state, Long userId);
+
+    List<BookingDtoForAnswer> getByOwnerAfter(String after, Long size, String state, Long userId);
 }
@@ -1,21 +1,29 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingAdmission;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingConflictException;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingQuery;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingRole;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoForAnswer;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.dto.BookingStatus;
-import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.item.Item;
-import ru.practicum.shareit.item.service.ItemService;
-import ru.practicum.shareit.user.UserMapper;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.transaction.Transactional;
@@ -23,24 +31,43 @@ import javax.validation.ValidationException;
 import java.nio.file.AccessDeniedException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository repository;
     private final UserService userService;
-    private final ItemService itemService;
-    private final UserMapper userMapper = UserMapper.INSTANCE;
-    private final ItemMapper itemMapper = ItemMapper.INSTANCE;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final ApplicationEventPublisher eventPublisher;
     private final BookingMapper mapper = BookingMapper.INSTANCE;
 
+    /**
+     * Reads the item, its owner and the booker in one statement that also locks the item row, so the checks
+     * below cannot race with an owner making the item unavailable, and inserts the booking with references
+     * that are never loaded. The answer is built from what was read.
+     */
     @Transactional
     @Override
     public BookingDtoForAnswer add(BookingDto bookingDto, Long userId) throws AccessDeniedException {
-        User booker = userMapper.userDtoToUser(userService.getById(userId));
-        Item item = itemMapper.toItemFromDtoWithBookings(itemService.getById(bookingDto.getItemId(), userId));
+        Long itemId = bookingDto.getItemId();
+        BookingAdmission admission = repository.findAdmission(itemId, userId).orElseThrow(() -> {
+            userService.checkExists(userId);
+            return new NoSuchElementException("Предмета с таким ID не существует");
+        });
+        if (admission.getBookerName() == null) {
+            throw new NoSuchElementException("Юзера с таким ID не существует");
+        }
         LocalDateTime start = bookingDto.getStart();
         LocalDateTime end = bookingDto.getEnd();
         LocalDateTime now = LocalDateTime.now();
@@ -56,47 +83,168 @@ public class BookingServiceImpl implements BookingService {
         if (end.isBefore(now)) {
             throw new ValidationException("Бронировать задним числом запрещено!");
         }
-        if (!item.getAvailable()) {
+        if (!admission.getAvailable()) {
             throw new ValidationException("Нельзя забронировать занятый предмет");
         }
-        if (item.getOwner().getId().equals(userId)) {
+        if (admission.getOwnerId().equals(userId)) {
             throw new AccessDeniedException("Нельзя забронировать свой предмет!");
         }
+        intervalIndex.checkAvailable(itemId, start, end);
 
         Booking booking = mapper.fromDto(bookingDto);
-        booking.setBooker(booker);
+        booking.setBooker(userRepository.getReferenceById(userId));
         booking.setStatus(BookingStatus.WAITING);
-        booking.setItem(item);
+        booking.setItem(itemRepository.getReferenceById(itemId));
 
         Booking savedBooking = repository.save(booking);
+        intervalIndex.add(itemId, savedBooking.getId(), start, end);
+        eventPublisher.publishEvent(new BookingChangedEvent(savedBooking.getId(), itemId, admission.getOwnerId(), userId,
+                start, end, savedBooking.getStatus()));
 
-        return mapper.toAnswerDto(savedBooking);
+        return toAnswerDto(savedBooking, admission, userId);
     }
 
+    /**
+     * Decides the booking with one conditional {@code UPDATE}, so of two concurrent decisions only one can
+     * succeed. The booking is read afterwards, for the answer on success or to explain the refusal.
+     */
     @Transactional
     @Override
     public BookingDtoForAnswer approve(Long id, Boolean isApproved, Long userId) throws AccessDeniedException {
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated = repository.decideWaiting(id, userId, status);
         Booking booking = repository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Брони с таким ID не существует"));
-        if (booking.getStatus() == BookingStatus.APPROVED) {
-            throw new ValidationException("Бронь уже подтверждена!");
+        if (updated == 0) {
+            refuse(booking, userId);
         }
-        Item item = booking.getItem();
-        Long ownerId = item.getOwner().getId();
+        Long itemId = booking.getItem().getId();
+        if (isApproved) {
+            intervalIndex.add(itemId, booking.getId(), booking.getStart(), booking.getEnd());
+        } else {
+            intervalIndex.remove(itemId, booking.getId());
+        }
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking));
+
+        return mapper.toAnswerDto(booking);
+    }
+
+    /**
+     * Decides a batch of bookings of one owner: all of them are read in one query, the ones that can be decided
+     * are written with one batched conditional {@code UPDATE}, and every decision gets its own result in the
+     * order given. Of the approvals for one item, one overlapping an earlier approval of the batch is refused.
+     * A batch that names a booking more than once is rejected as a whole.
+     */
+    @Transactional
+    @Override
+    public List<BookingDecisionResultDto> decideAll(List<BookingDecisionDto> decisions, Long userId) {
+        userService.checkExists(userId);
+        Set<Long> ids = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .collect(Collectors.toSet());
+        if (ids.size() < decisions.size()) {
+            throw new ValidationException("Бронь указана в пакете несколько раз");
+        }
+        Map<Long, Booking> bookings = repository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Map<Long, BookingDecisionResultDto> results = new LinkedHashMap<>();
+        Map<Long, String> errors = new HashMap<>();
+        List<Booking> approvals = new ArrayList<>();
+        Map<Long, BookingStatus> accepted = new HashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            Long id = decision.getBookingId();
+            results.put(id, new BookingDecisionResultDto(id, null, null));
+            String error = checkDecidable(bookings.get(id), userId);
+            if (error != null) {
+                errors.put(id, error);
+            } else if (decision.getApproved()) {
+                approvals.add(bookings.get(id));
+            } else {
+                accepted.put(id, BookingStatus.REJECTED);
+            }
+        }
+        errors.forEach((id, error) -> accepted.remove(id));
+        approvals.removeIf(booking -> errors.containsKey(booking.getId()));
+        acceptApprovals(approvals, accepted, errors);
 
-        if (userId.equals(ownerId)) {
-            if (isApproved) {
-                booking.setStatus(BookingStatus.APPROVED);
+        Set<Long> decided = accepted.isEmpty() ? Set.of() : repository.decideAllWaiting(accepted, userId);
+        for (BookingDecisionResultDto result : results.values()) {
+            Long id = result.getBookingId();
+            if (errors.containsKey(id)) {
+                result.setError(errors.get(id));
+            } else if (!decided.contains(id)) {
+                result.setError("Бронь уже рассмотрена!");
             } else {
-                booking.setStatus(BookingStatus.REJECTED);
+                BookingStatus status = accepted.get(id);
+                Booking booking = bookings.get(id);
+                Long itemId = booking.getItem().getId();
+                if (status == BookingStatus.REJECTED) {
+                    intervalIndex.remove(itemId, id);
+                } else {
+                    intervalIndex.add(itemId, id, booking.getStart(), booking.getEnd());
+                }
+                booking.setStatus(status);
+                result.setStatus(status);
+                eventPublisher.publishEvent(BookingChangedEvent.of(booking));
             }
+        }
+        return new ArrayList<>(results.values());
+    }
 
-            Booking result = repository.save(booking);
+    private static String checkDecidable(Booking booking, Long userId) {
+        if (booking == null) {
+            return "Брони с таким ID не существует";
+        }
+        if (booking.getStatus() == BookingStatus.APPROVED) {
+            return "Бронь уже подтверждена!";
+        }
+        if (!booking.getItem().getOwner().getId().equals(userId)) {
+            return "Подтвердить бронь может только владелец вещи!";
+        }
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            return "Бронь уже рассмотрена!";
+        }
+        return null;
+    }
 
-            return mapper.toAnswerDto(result);
-        } else {
+    /**
+     * Accepts the approvals item by item in order of their start, refusing one that overlaps an approval
+     * accepted before it in the batch. A booking the interval index does not hold yet is checked against it too,
+     * and is added to it only once its {@code UPDATE} succeeds.
+     */
+    private void acceptApprovals(List<Booking> approvals, Map<Long, BookingStatus> accepted,
+                                 Map<Long, String> errors) {
+        Map<Long, List<Booking>> byItem = approvals.stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId))
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), LinkedHashMap::new,
+                        Collectors.toList()));
+        byItem.forEach((itemId, itemApprovals) -> {
+            LocalDateTime acceptedUntil = null;
+            for (Booking booking : itemApprovals) {
+                if (acceptedUntil != null && booking.getStart().isBefore(acceptedUntil)) {
+                    errors.put(booking.getId(), "Предмет уже забронирован на это время");
+                    continue;
+                }
+                try {
+                    intervalIndex.checkAvailable(itemId, booking.getId(), booking.getStart(), booking.getEnd());
+                } catch (BookingConflictException e) {
+                    errors.put(booking.getId(), e.getMessage());
+                    continue;
+                }
+                accepted.put(booking.getId(), BookingStatus.APPROVED);
+                acceptedUntil = booking.getEnd();
+            }
+        });
+    }
+
+    private static void refuse(Booking booking, Long userId) throws AccessDeniedException {
+        if (booking.getStatus() == BookingStatus.APPROVED) {
+            throw new ValidationException("Бронь уже подтверждена!");
+        }
+        if (!booking.getItem().getOwner().getId().equals(userId)) {
             throw new AccessDeniedException("Подтвердить бронь может только владелец вещи!");
         }
+        throw new ValidationException("Бронь уже рассмотрена!");
     }
 
     @Override
@@ -116,78 +264,66 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDtoForAnswer> getByUser(Long from, Long size, String state, Long userId) {
-        if (from < 0 || size < 0) {
-            throw new ValidationException("Параметры пагинации не могут быть отрицательными.");
-        }
-        int page = (int) (from / size);
-        Pageable pageable = PageRequest.of(page, size.intValue());
-        userService.getById(userId);
-        List<Booking> result = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-        try {
-            switch (BookingState.valueOf(state)) {
-                case ALL:
-                    result = repository.findAllByBooker_IdOrderByStartDesc(userId, pageable).getContent();
-                    break;
-                case CURRENT:
-                    result = repository.findAllByBooker_IdAndStartIsBeforeAndEndIsAfter(userId, now, now, pageable).getContent();
-                    break;
-                case PAST:
-                    result = repository.findAllByBooker_IdAndEndIsBeforeOrderByStartDesc(userId, now, pageable).getContent();
-                    break;
-                case FUTURE:
-                    result = repository.findAllByBooker_IdAndStartIsAfterOrderByStartDesc(userId, now, pageable).getContent();
-                    break;
-                case WAITING:
-                    result = repository.findAllByBooker_IdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, pageable).getContent();
-                    break;
-                case REJECTED:
-                    result = repository.findAllByBooker_IdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, pageable).getContent();
-                    break;
-            }
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Unknown state: " + state);
-        }
+        return getPage(BookingRole.BOOKER, from, size, state, userId);
+    }
 
+    @Override
+    public List<BookingDtoForAnswer> getByOwner(Long from, Long size, String state, Long ownerId) {
+        return getPage(BookingRole.OWNER, from, size, state, ownerId);
+    }
 
-        return mapper.toListAnswerDto(result);
+    @Override
+    public List<BookingDtoForAnswer> getByUserAfter(String after, Long size, String state, Long userId) {
+        return getAfter(BookingRole.BOOKER, after, size, state, userId);
     }
 
     @Override
-    public List<BookingDtoForAnswer> getByOwner(Long from, Long size, String state, Long ownerId) {
+    public List<BookingDtoForAnswer> getByOwnerAfter(String after, Long size, String state, Long ownerId) {
+        return getAfter(BookingRole.OWNER, after, size, state, ownerId);
+    }
+
+    private List<BookingDtoForAnswer> getPage(BookingRole role, Long from, Long size, String state, Long userId) {
         if (from < 0 || size < 0) {
             throw new ValidationException("Параметры пагинации не могут быть отрицательными.");
         }
-        int page = (int) (from / size);
-        Pageable pageable = PageRequest.of(page, size.intValue());
-        userService.getById(ownerId);
-        List<Booking> result = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
+        long offset = from / size * size;
+        userService.checkExists(userId);
+        BookingQuery query = BookingQuery.of(role, userId, parseState(state), LocalDateTime.now());
+
+        return mapper.toListAnswerDto(repository.findByQuery(query, null, offset, size.intValue()).getContent());
+    }
+
+    private List<BookingDtoForAnswer> getAfter(BookingRole role, String after, Long size, String state, Long userId) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным.");
+        }
+        BookingState bookingState = parseState(state);
+        BookingCursor cursor = after == null || after.isEmpty() ? null : BookingCursor.decode(after);
+        userService.checkExists(userId);
+        BookingQuery query = BookingQuery.of(role, userId, bookingState, LocalDateTime.now());
+
+        return mapper.toListAnswerDto(repository.findByQuery(query, cursor, 0, size.intValue()).getContent());
+    }
+
+    private static BookingDtoForAnswer toAnswerDto(Booking booking, BookingAdmission admission, Long bookerId) {
+        ItemDto item = ItemDto.builder()
+                .id(admission.getItemId())
+                .name(admission.getItemName())
+                .description(admission.getItemDescription())
+                .owner(new UserDto(admission.getOwnerId(), admission.getOwnerName(), admission.getOwnerEmail()))
+                .available(admission.getAvailable())
+                .requestId(admission.getRequestId())
+                .build();
+        UserDto booker = new UserDto(bookerId, admission.getBookerName(), admission.getBookerEmail());
+        return new BookingDtoForAnswer(booking.getId(), booking.getStart(), booking.getEnd(), item, booker,
+                booking.getStatus());
+    }
+
+    private static BookingState parseState(String state) {
         try {
-            switch (BookingState.valueOf(state)) {
-                case ALL:
-                    result = repository.findAllByItem_Owner_IdOrderByStartDesc(ownerId, pageable).getContent();
-                    break;
-                case CURRENT:
-                    result = repository.findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(ownerId, now, now, pageable).getContent();
-                    break;
-                case PAST:
-                    result = repository.findAllByItem_Owner_IdAndEndIsBeforeOrderByStartDesc(ownerId, now, pageable).getContent();
-                    break;
-                case FUTURE:
-                    result = repository.findAllByItem_Owner_IdAndStartIsAfterOrderByStartDesc(ownerId, now, pageable).getContent();
-                    break;
-                case WAITING:
-                    result = repository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING, pageable).getContent();
-                    break;
-                case REJECTED:
-                    result = repository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED, pageable).getContent();
-                    break;
-            }
+            return BookingState.valueOf(state);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Unknown state: " + state);
         }
-
-        return mapper.toListAnswerDto(result);
     }
 }
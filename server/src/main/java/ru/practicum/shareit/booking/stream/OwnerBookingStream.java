@@ -0,0 +1,210 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.dto.OwnerBookingEventDto;
+import ru.practicum.shareit.sse.SseSender;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent event streams of bookings created and decided on the items of an owner, one or more per owner.
+ * Events are numbered per owner as {@code <epoch>:<sequence>}; the last {@code replay} of them are kept so that
+ * a client reconnecting with {@code Last-Event-ID} gets what it missed. When that is no longer possible
+ * (the events were evicted, or the server restarted) it gets a {@value #RESET} event and should reload the
+ * bookings. Every stream has a queue of {@code buffer} events written by an {@link SseSender}; a stream whose
+ * client does not keep up is closed when its queue is full, or when one send blocks for {@code send-timeout},
+ * and the client resumes with {@code Last-Event-ID}, so a slow client holds neither memory nor the thread
+ * publishing the event. Events are only kept for owners that have subscribed since the server started, and
+ * are dropped with their streams when the owner is removed.
+ */
+@Component
+public class OwnerBookingStream {
+    public static final String CREATED = "booking-created";
+    public static final String STATUS_CHANGED = "booking-status-changed";
+    public static final String RESET = "reset";
+
+    private final UserService userService;
+    private final long timeoutMillis;
+    private final int replaySize;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final SseSender sender;
+
+    public OwnerBookingStream(UserService userService,
+                              @Value("${shareit.bookings.stream.timeout:30m}") Duration timeout,
+                              @Value("${shareit.bookings.stream.buffer:256}") int bufferSize,
+                              @Value("${shareit.bookings.stream.replay:100}") int replaySize,
+                              @Value("${shareit.bookings.stream.sender-threads:8}") int senderThreads,
+                              @Value("${shareit.bookings.stream.send-timeout:10s}") Duration sendTimeout) {
+        if (bufferSize <= 0 || replaySize < 0 || replaySize > bufferSize) {
+            throw new IllegalArgumentException("Stream replay must be between 0 and the buffer size: "
+                    + replaySize + " of " + bufferSize);
+        }
+        this.userService = userService;
+        this.timeoutMillis = timeout.toMillis();
+        this.replaySize = replaySize;
+        this.sender = new SseSender("owner-booking-stream", senderThreads, bufferSize, sendTimeout);
+    }
+
+    /**
+     * Opens a stream of the owner's booking events, starting with the ones after {@code lastEventId} if given.
+     */
+    public SseEmitter subscribe(Long ownerId, String lastEventId) {
+        userService.checkExists(ownerId);
+        Channel channel = channels.computeIfAbsent(ownerId, id -> new Channel());
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SseSender.Stream stream = sender.open(emitter, channel.streams::remove);
+        channel.lock.lock();
+        try {
+            if (channel.removed) {
+                // the owner was removed after the check above
+                stream.close();
+                return emitter;
+            }
+            replay(channel, lastEventId, stream);
+            if (!stream.isClosed()) {
+                channel.streams.add(stream);
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Channel channel = channels.get(event.getOwnerId());
+        if (channel == null) {
+            return;
+        }
+        OwnerBookingEventDto booking = new OwnerBookingEventDto(event.getBookingId(), event.getItemId(),
+                event.getBookerId(), event.getStart(), event.getEnd(), event.getStatus());
+        channel.lock.lock();
+        try {
+            Entry entry = new Entry(++channel.sequence, event.isCreated() ? CREATED : STATUS_CHANGED, booking);
+            if (replaySize > 0) {
+                if (channel.recent.size() == replaySize) {
+                    channel.recent.pollFirst();
+                }
+                channel.recent.addLast(entry);
+            }
+            for (SseSender.Stream stream : channel.streams) {
+                stream.offer(event(entry));
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the streams of a removed owner and forgets their events.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        Channel channel = channels.remove(event.getUserId());
+        if (channel == null) {
+            return;
+        }
+        channel.lock.lock();
+        try {
+            channel.removed = true;
+        } finally {
+            channel.lock.unlock();
+        }
+        channel.streams.forEach(SseSender.Stream::close);
+    }
+
+    int subscriberCount(Long ownerId) {
+        Channel channel = channels.get(ownerId);
+        return channel == null ? 0 : channel.streams.size();
+    }
+
+    boolean isTracked(Long ownerId) {
+        return channels.containsKey(ownerId);
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.shutdown();
+    }
+
+    /**
+     * Queues the events after {@code lastEventId} for a new subscriber, or a reset if some of them are gone.
+     */
+    private void replay(Channel channel, String lastEventId, SseSender.Stream stream) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long after = parseSequence(lastEventId);
+        Entry oldest = channel.recent.peekFirst();
+        boolean missed = oldest == null ? after < channel.sequence : oldest.sequence > after + 1;
+        if (after < 0 || after > channel.sequence || missed) {
+            stream.offer(event(new Entry(channel.sequence, RESET, null)));
+            return;
+        }
+        for (Entry entry : channel.recent) {
+            if (entry.sequence > after) {
+                stream.offer(event(entry));
+            }
+        }
+    }
+
+    /**
+     * The sequence of an event id of this server run, or {@code -1} for any other id.
+     */
+    private long parseSequence(String eventId) {
+        int separator = eventId.indexOf(':');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private SseEmitter.SseEventBuilder event(Entry entry) {
+        return SseEmitter.event()
+                .id(epoch + ":" + entry.sequence)
+                .name(entry.name)
+                .data(entry.booking == null ? "" : entry.booking);
+    }
+
+    private static final class Channel {
+        final ReentrantLock lock = new ReentrantLock();
+        final List<SseSender.Stream> streams = new CopyOnWriteArrayList<>();
+        final Deque<Entry> recent = new ArrayDeque<>();
+        long sequence;
+        boolean removed;
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final String name;
+        final OwnerBookingEventDto booking;
+
+        Entry(long sequence, String name, OwnerBookingEventDto booking) {
+            this.sequence = sequence;
+            this.name = name;
+            this.booking = booking;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.comment;
+
+import lombok.Value;
+
+/**
+ * Published by the item service after a comment is saved.
+ */
+@Value
+public class CommentAddedEvent {
+    Long commentId;
+
+    Long itemId;
+}
@@ -1,11 +1,15 @@
 package ru.practicum.shareit.comment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItem_Id(Long itemId);
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id = :itemId")
+    List<Comment> findAllByItem_Id(@Param("itemId") Long itemId);
 
-    List<Comment> findAllByItem_IdIn(List<Long> itemIds);
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id IN :itemIds")
+    List<Comment> findAllByItem_IdIn(@Param("itemIds") List<Long> itemIds);
 }
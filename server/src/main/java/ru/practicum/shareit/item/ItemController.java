@@ -1,18 +1,25 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comment.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoForUpdate;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.importer.ItemImportFormat;
+import ru.practicum.shareit.item.importer.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.utils.ItemApiPathConstants;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
+import java.io.IOException;
 import java.nio.file.AccessDeniedException;
 import java.util.List;
 
@@ -22,12 +29,24 @@ import java.util.List;
 @RequestMapping(ItemApiPathConstants.ITEMS_PATH)
 public class ItemController {
     private final ItemService service;
+    private final ItemImporter importer;
 
     @PostMapping
     public ResponseEntity<ItemDto> add(@Valid @RequestBody ItemDto item, @RequestHeader("X-Sharer-User-Id") Long ownerId) {
         return ResponseEntity.status(201).body(service.add(item, ownerId));
     }
 
+    @PostMapping(path = ItemApiPathConstants.IMPORT_ITEMS_PATH,
+            consumes = {ItemImportFormat.NDJSON_VALUE, ItemImportFormat.CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importItems(HttpServletRequest request,
+                                                             @RequestHeader("X-Sharer-User-Id") Long ownerId) throws IOException {
+        ItemImportFormat format = ItemImportFormat.of(MediaType.parseMediaType(request.getContentType())).orElseThrow();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(importer.importItems(request.getInputStream(), format, ownerId));
+    }
+
     @PatchMapping(ItemApiPathConstants.ITEM_ID_PATH)
     public ResponseEntity<ItemDto> update(@RequestBody ItemDtoForUpdate item, @RequestHeader("X-Sharer-User-Id") Long ownerId, @Positive @PathVariable Long itemId) throws AccessDeniedException {
         item.setId(itemId);
@@ -53,6 +72,12 @@ public class ItemController {
         return ResponseEntity.ok(service.search(text, from, size));
     }
 
+    @GetMapping(ItemApiPathConstants.SUGGEST_ITEMS_PATH)
+    public ResponseEntity<List<ItemSuggestionDto>> suggest(@RequestParam String prefix,
+                                                           @RequestParam(defaultValue = "10") Integer size) {
+        return ResponseEntity.ok(service.suggest(prefix, size));
+    }
+
     @PostMapping(ItemApiPathConstants.COMMENTS)
     public ResponseEntity<CommentDto> addComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId, @Valid @RequestBody CommentDto comment) {
         return ResponseEntity.ok(service.addComment(itemId, userId, comment));
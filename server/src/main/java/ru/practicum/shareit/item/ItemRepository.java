@@ -2,10 +2,14 @@ package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import ru.practicum.shareit.item.Item;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.RequestedItemDto;
+import ru.practicum.shareit.item.suggest.ItemNameView;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -17,5 +21,25 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "OR LOWER(it.description) LIKE LOWER(concat('%', ?1, '%'))) AND it.available = true")
     Page<Item> search(String text, Pageable pageable);
 
-    List<Item> findAllByRequestId(Long requestId);
+    @Query("SELECT new ru.practicum.shareit.item.ItemSavedEvent(it.id, it.name, it.description, it.available) "
+            + "FROM Item it WHERE it.id > :afterId ORDER BY it.id")
+    List<ItemSavedEvent> findSavedEventsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(value = "SELECT * FROM items " +
+            "WHERE available AND search_vector @@ to_tsquery('simple', :query) " +
+            "ORDER BY ts_rank(search_vector, to_tsquery('simple', :query)) DESC, id",
+            nativeQuery = true)
+    Slice<Item> searchFullText(@Param("query") String query, Pageable pageable);
+
+    @Query("SELECT it FROM Item it JOIN FETCH it.owner WHERE it.id IN ?1")
+    List<Item> findAllWithOwnerByIdIn(Collection<Long> ids);
+
+    @Query("SELECT it.id AS id, it.name AS name FROM Item it WHERE it.available = true")
+    List<ItemNameView> findAllAvailableNames();
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.RequestedItemDto(it.id, it.name, it.description, it.available, it.request.id) " +
+            "FROM Item it " +
+            "WHERE it.request.id IN ?1 " +
+            "ORDER BY it.id")
+    List<RequestedItemDto> findAllByRequestIdIn(Collection<Long> requestIds);
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item;
+
+import lombok.Value;
+
+/**
+ * Published by the item service after an item is created or updated; listeners see the saved state.
+ */
+@Value
+public class ItemSavedEvent {
+    Long id;
+
+    String name;
+
+    String description;
+
+    boolean available;
+
+    public static ItemSavedEvent of(Item item) {
+        return new ItemSavedEvent(item.getId(), item.getName(), item.getDescription(), Boolean.TRUE.equals(item.getAvailable()));
+    }
+}
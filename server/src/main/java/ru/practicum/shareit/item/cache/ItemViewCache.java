@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.comment.CommentAddedEvent;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.dto.ItemBookingDto;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of assembled {@code GET /items/{id}} responses. The public view (item and comments) is shared
+ * by all users except the owner; the owner view adds last and next booking and expires when the next booking
+ * starts, since that is when both of them change. Entries are dropped after the transaction that changed
+ * the item, its comments or its bookings commits, and all of them after a user is updated or removed. Cached views are shared and must not be modified.
+ * Statistics are published as the {@code cache.*} meters with tags {@code cache=item.view.public|item.view.owner}.
+ */
+@Component
+public class ItemViewCache {
+    private final Cache<Long, ItemBookingDto> publicViews;
+    private final Cache<Long, OwnerItemView> ownerViews;
+
+    @Autowired
+    public ItemViewCache(MeterRegistry meterRegistry,
+                         @Value("${shareit.cache.item-view.maximum-size:10000}") long maximumSize,
+                         @Value("${shareit.cache.item-view.ttl:10m}") Duration ttl) {
+        this(maximumSize, ttl, Ticker.systemTicker(), Clock.systemDefaultZone());
+        CaffeineCacheMetrics.monitor(meterRegistry, publicViews, "item.view.public");
+        CaffeineCacheMetrics.monitor(meterRegistry, ownerViews, "item.view.owner");
+    }
+
+    ItemViewCache(long maximumSize, Duration ttl, Ticker ticker, Clock clock) {
+        publicViews = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        ownerViews = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilNextBooking(ttl, clock))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    public ItemBookingDto getPublic(Long itemId, Function<Long, ItemBookingDto> loader) {
+        return publicViews.get(itemId, loader);
+    }
+
+    public ItemBookingDto getOwner(Long itemId, Function<Long, OwnerItemView> loader) {
+        return ownerViews.get(itemId, loader).getView();
+    }
+
+    public void invalidate(Long itemId) {
+        publicViews.invalidate(itemId);
+        ownerViews.invalidate(itemId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        invalidate(event.getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        invalidate(event.getItemId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        ownerViews.invalidate(event.getItemId());
+    }
+
+    /**
+     * Views hold the names of owners, bookers and comment authors, and the user's removal takes items with it,
+     * so every view is dropped; users change rarely.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        publicViews.invalidateAll();
+        ownerViews.invalidateAll();
+    }
+
+    private static final class UntilNextBooking implements Expiry<Long, OwnerItemView> {
+        private final long ttlNanos;
+        private final Clock clock;
+
+        UntilNextBooking(Duration ttl, Clock clock) {
+            this.ttlNanos = ttl.toNanos();
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(Long itemId, OwnerItemView value, long currentTime) {
+            if (value.getValidUntil() == null) {
+                return ttlNanos;
+            }
+            long untilNextBooking = Duration.between(LocalDateTime.now(clock), value.getValidUntil()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilNextBooking));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, OwnerItemView value, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, OwnerItemView value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
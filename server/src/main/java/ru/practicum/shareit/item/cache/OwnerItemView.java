@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Value;
+import ru.practicum.shareit.item.dto.ItemBookingDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Owner view of an item and the start of its next booking, after which the view is out of date.
+ */
+@Value
+public class OwnerItemView {
+    ItemBookingDto view;
+
+    LocalDateTime validUntil;
+}
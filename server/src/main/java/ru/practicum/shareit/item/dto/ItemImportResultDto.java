@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+/**
+ * One line of the import report: the id of the item created from the line, or the reason it was skipped.
+ */
+@ToString
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemImportResultDto {
+    private long line;
+
+    private Long itemId;
+
+    private String error;
+}
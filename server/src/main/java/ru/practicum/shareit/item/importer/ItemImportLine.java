@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.importer;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+/**
+ * A line of the import body with the item read from it, and what became of it.
+ */
+@Getter
+@Setter
+class ItemImportLine {
+    private final long number;
+    private final ItemDto item;
+    private String error;
+    private Long itemId;
+
+    ItemImportLine(long number, ItemDto item, String error) {
+        this.number = number;
+        this.item = item;
+        this.error = error;
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import body one line at a time, so only the current line is held in memory. An NDJSON line is an
+ * {@link ItemDto} object; a CSV body starts with a header naming the {@code name}, {@code description},
+ * {@code available} and, optionally, {@code requestId} columns. Blank lines are skipped; a line that cannot
+ * be read is returned with an error. A CSV value cannot span lines.
+ */
+class ItemImportReader {
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String AVAILABLE = "available";
+    private static final String REQUEST_ID = "requestid";
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final BufferedReader reader;
+    private final ItemImportFormat format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private long lineNumber;
+    private boolean finished;
+
+    ItemImportReader(BufferedReader reader, ItemImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The next non-blank line, or {@code null} at the end of the body. A CSV body with a bad header ends
+     * after the header line.
+     */
+    ItemImportLine next() throws IOException {
+        while (!finished) {
+            String line = reader.readLine();
+            if (line == null) {
+                finished = true;
+                return null;
+            }
+            lineNumber++;
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == BYTE_ORDER_MARK) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ItemImportFormat.NDJSON) {
+                return readJson(line);
+            }
+            if (columns == null) {
+                String error = readHeader(line);
+                if (error == null) {
+                    continue;
+                }
+                finished = true;
+                return new ItemImportLine(lineNumber, null, error);
+            }
+            return readCsv(line);
+        }
+        return null;
+    }
+
+    private ItemImportLine readJson(String line) {
+        try {
+            return new ItemImportLine(lineNumber, objectMapper.readValue(line, ItemDto.class), null);
+        } catch (JsonProcessingException e) {
+            return new ItemImportLine(lineNumber, null, "Строка не является объектом JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private String readHeader(String line) {
+        List<String> names;
+        try {
+            names = split(line);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of(NAME, DESCRIPTION, AVAILABLE)) {
+            if (!header.containsKey(required)) {
+                return "В заголовке CSV нет столбца " + required;
+            }
+        }
+        columns = header;
+        return null;
+    }
+
+    private ItemImportLine readCsv(String line) {
+        List<String> values;
+        try {
+            values = split(line);
+        } catch (IllegalArgumentException e) {
+            return new ItemImportLine(lineNumber, null, e.getMessage());
+        }
+        ItemDto item = ItemDto.builder()
+                .name(value(values, NAME))
+                .description(value(values, DESCRIPTION))
+                .build();
+        String available = value(values, AVAILABLE);
+        if (available != null) {
+            if (!available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+                return new ItemImportLine(lineNumber, null, "Статус доступа должен быть true или false");
+            }
+            item.setAvailable(Boolean.parseBoolean(available));
+        }
+        String requestId = value(values, REQUEST_ID);
+        if (requestId != null) {
+            try {
+                item.setRequestId(Long.parseLong(requestId.trim()));
+            } catch (NumberFormatException e) {
+                return new ItemImportLine(lineNumber, null, "Некорректный ID запроса: " + requestId);
+            }
+        }
+        return new ItemImportLine(lineNumber, item, null);
+    }
+
+    /**
+     * The value of the column, or {@code null} if the line has no such column or the value is empty.
+     */
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    /**
+     * Splits a CSV line at commas outside double quotes; a quote inside a quoted value is doubled.
+     */
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка в строке CSV");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
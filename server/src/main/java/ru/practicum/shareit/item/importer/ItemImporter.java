@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.match.RequestMatcher;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the items of one owner from an NDJSON or CSV body as it is read. Lines are saved in batches of
+ * {@code shareit.items.import.batch-size}, each in its own transaction with one query for the requests the
+ * batch answers, and the report line of every body line is written as soon as its batch commits. A line
+ * that fails validation is reported and skipped; a batch that fails to save is reported line by line and
+ * the import goes on with the next one.
+ */
+@Slf4j
+@Component
+public class ItemImporter {
+    private final UserService userService;
+    private final ItemRepository repository;
+    private final RequestRepository requestRepository;
+    private final RequestMatcher requestMatcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ItemMapper mapper = ItemMapper.INSTANCE;
+
+    public ItemImporter(UserService userService, ItemRepository repository, RequestRepository requestRepository,
+                        RequestMatcher requestMatcher, ApplicationEventPublisher eventPublisher, Validator validator,
+                        ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                        @Value("${shareit.items.import.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Import batch size must be positive: " + batchSize);
+        }
+        this.userService = userService;
+        this.repository = repository;
+        this.requestRepository = requestRepository;
+        this.requestMatcher = requestMatcher;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Looks the owner up before anything is written, then returns the body of the NDJSON report.
+     */
+    public StreamingResponseBody importItems(InputStream body, ItemImportFormat format, Long ownerId) {
+        UserDto owner = userService.getById(ownerId);
+        return outputStream -> importItems(new ItemImportReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), format, objectMapper),
+                owner, outputStream);
+    }
+
+    void importItems(ItemImportReader reader, UserDto owner, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        List<ItemImportLine> batch = new ArrayList<>(batchSize);
+        long imported = 0;
+        long lines = 0;
+        ItemImportLine line;
+        while ((line = reader.next()) != null) {
+            batch.add(line);
+            if (batch.size() == batchSize) {
+                imported += save(batch, owner);
+                lines += report(batch, writer);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            imported += save(batch, owner);
+            lines += report(batch, writer);
+        }
+        writer.flush();
+        log.info("Imported {} of {} items for owner {}", imported, lines, owner.getId());
+    }
+
+    private int save(List<ItemImportLine> batch, UserDto owner) {
+        List<ItemImportLine> valid = new ArrayList<>(batch.size());
+        for (ItemImportLine line : batch) {
+            if (line.getError() == null) {
+                line.setError(validate(line.getItem()));
+            }
+            if (line.getError() == null) {
+                valid.add(line);
+            }
+        }
+        if (valid.isEmpty()) {
+            return 0;
+        }
+        try {
+            return transactionTemplate.execute(status -> insert(valid, owner));
+        } catch (RuntimeException e) {
+            log.warn("Import batch of lines {}-{} failed", batch.get(0).getNumber(),
+                    batch.get(batch.size() - 1).getNumber(), e);
+            for (ItemImportLine line : valid) {
+                line.setItemId(null);
+                // a line refused before the failure keeps its own reason
+                if (line.getError() == null) {
+                    line.setError("Пакет строк не сохранён: " + e.getMessage());
+                }
+            }
+            return 0;
+        }
+    }
+
+    private int insert(List<ItemImportLine> lines, UserDto owner) {
+        Set<Long> requestIds = lines.stream()
+                .map(line -> line.getItem().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Map.of()
+                : requestRepository.findAllWithRequesterByIdIn(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<ItemImportLine> accepted = new ArrayList<>(lines.size());
+        List<Item> items = new ArrayList<>(lines.size());
+        for (ItemImportLine line : lines) {
+            ItemDto dto = line.getItem();
+            dto.setId(null);
+            dto.setOwner(owner);
+            Item item = mapper.toItem(dto);
+            if (dto.getRequestId() != null) {
+                ItemRequest request = requests.get(dto.getRequestId());
+                if (request == null) {
+                    line.setError("Запроса с таким ID не найдено");
+                    continue;
+                }
+                item.setRequest(request);
+            }
+            accepted.add(line);
+            items.add(item);
+        }
+        List<Item> saved = repository.saveAll(items);
+        repository.flush();
+        for (int i = 0; i < saved.size(); i++) {
+            Item item = saved.get(i);
+            accepted.get(i).setItemId(item.getId());
+            eventPublisher.publishEvent(ItemSavedEvent.of(item));
+            requestMatcher.match(item).forEach(eventPublisher::publishEvent);
+        }
+        return saved.size();
+    }
+
+    private String validate(ItemDto item) {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private int report(List<ItemImportLine> batch, Writer writer) throws IOException {
+        for (ItemImportLine line : batch) {
+            writer.write(objectMapper.writeValueAsString(
+                    new ItemImportResultDto(line.getNumber(), line.getItemId(), line.getError())));
+            writer.write('\n');
+        }
+        writer.flush();
+        return batch.size();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * {@code /actuator/itemindex}: size of the Lucene item index, and a full rebuild from the database on POST.
+ */
+@Component
+@Endpoint(id = "itemindex")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = ItemSearchBackend.PROPERTY, havingValue = "lucene")
+public class ItemIndexEndpoint {
+    private final LuceneItemSearchBackend backend;
+
+    @ReadOperation
+    public Map<String, Integer> size() {
+        return Map.of("items", backend.size());
+    }
+
+    @WriteOperation
+    public Map<String, Integer> rebuild() throws IOException {
+        return Map.of("items", backend.rebuild());
+    }
+}
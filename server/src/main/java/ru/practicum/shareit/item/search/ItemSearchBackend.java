@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+
+/**
+ * Finds available items matching free text. The implementation is chosen with {@code shareit.search.backend}.
+ * Callers only read the rows of the page, so backends need not count all matches.
+ */
+public interface ItemSearchBackend {
+    String PROPERTY = "shareit.search.backend";
+
+    Slice<Item> search(String text, Pageable pageable);
+}
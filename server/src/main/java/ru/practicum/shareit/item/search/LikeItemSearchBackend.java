@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+/**
+ * Substring match over name and description. Works on any database but scans the whole items table.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = ItemSearchBackend.PROPERTY, havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchBackend implements ItemSearchBackend {
+    private final ItemRepository repository;
+
+    @Override
+    public Slice<Item> search(String text, Pageable pageable) {
+        return repository.search(text, pageable);
+    }
+}
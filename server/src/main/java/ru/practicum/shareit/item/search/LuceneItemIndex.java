@@ -0,0 +1,181 @@
+package ru.practicum.shareit.item.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import ru.practicum.shareit.item.ItemSavedEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * On-disk Lucene index of items. Documents hold the analyzed name and description and the availability flag;
+ * only the id is stored. Scoring is Lucene's default BM25, name matches weigh twice as much as description matches.
+ * Writes become visible to searches immediately through a near-real-time reader refresh, and durable on
+ * {@link #commit()} or {@link #close()}.
+ */
+class LuceneItemIndex implements Closeable {
+    static final String ID = "id";
+    static final String NAME = "name";
+    static final String DESCRIPTION = "description";
+    static final String AVAILABLE = "available";
+
+    private static final float NAME_BOOST = 2f;
+    private static final float PREFIX_BOOST = 0.5f;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    LuceneItemIndex(Path path) throws IOException {
+        directory = FSDirectory.open(path);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    void update(ItemSavedEvent item) throws IOException {
+        writer.updateDocument(new Term(ID, item.getId().toString()), toDocument(item));
+        searcherManager.maybeRefresh();
+    }
+
+    void delete(Collection<Long> ids) throws IOException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        writer.deleteDocuments(ids.stream().map(id -> new Term(ID, id.toString())).toArray(Term[]::new));
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Adds the items to an index that does not hold them yet, and commits.
+     */
+    void load(Iterable<ItemSavedEvent> items) throws IOException {
+        for (ItemSavedEvent item : items) {
+            writer.addDocument(toDocument(item));
+        }
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    Hits search(String text, int offset, int limit) throws IOException {
+        Query query = toQuery(text);
+        if (query == null) {
+            return new Hits(List.of(), 0);
+        }
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs top = searcher.search(query, offset + limit);
+            List<Long> ids = new ArrayList<>();
+            for (int i = offset; i < top.scoreDocs.length; i++) {
+                ScoreDoc hit = top.scoreDocs[i];
+                ids.add(Long.valueOf(searcher.doc(hit.doc).get(ID)));
+            }
+            return new Hits(ids, top.totalHits.value);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query toQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(AVAILABLE, "true")), BooleanClause.Occur.FILTER);
+        for (String term : terms) {
+            BooleanQuery anyField = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(NAME, term)), NAME_BOOST), BooleanClause.Occur.SHOULD)
+                    .add(new TermQuery(new Term(DESCRIPTION, term)), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(NAME, term)), NAME_BOOST * PREFIX_BOOST),
+                            BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(DESCRIPTION, term)), PREFIX_BOOST),
+                            BooleanClause.Occur.SHOULD)
+                    .build();
+            query.add(anyField, BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Document toDocument(ItemSavedEvent item) {
+        Document document = new Document();
+        document.add(new StringField(ID, item.getId().toString(), Field.Store.YES));
+        document.add(new TextField(NAME, nullToEmpty(item.getName()), Field.Store.NO));
+        document.add(new TextField(DESCRIPTION, nullToEmpty(item.getDescription()), Field.Store.NO));
+        document.add(new StringField(AVAILABLE, Boolean.toString(item.isAvailable()), Field.Store.NO));
+        return document;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    static final class Hits {
+        final List<Long> ids;
+        final long total;
+
+        Hits(List<Long> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.FileSystemUtils;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ranks and filters items in an embedded Lucene index instead of the database. The index is built from
+ * {@link ItemRepository} when empty or on request, and follows item changes and owner removals after their
+ * transaction commits. Only the rows of the requested page are then read from the database, by primary key.
+ * Changes are committed to disk every {@code commit-interval} and on shutdown; a crash loses at most that much,
+ * which a rebuild restores. A rebuild fills a new index next to the live one, in directories
+ * {@code index-<generation>} under {@code shareit.search.lucene.path}, applies the changes made meanwhile and
+ * then takes the live one's place.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ItemSearchBackend.PROPERTY, havingValue = "lucene")
+public class LuceneItemSearchBackend implements ItemSearchBackend {
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final String GENERATION_PREFIX = "index-";
+
+    private final ItemRepository repository;
+    private final Path path;
+    private final Duration commitInterval;
+    /**
+     * Held shared by searches and updates, and exclusively to replace the index.
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Lock rebuildLock = new ReentrantLock();
+    private ScheduledExecutorService committer;
+    private LuceneItemIndex index;
+    private long generation;
+    /**
+     * Items saved (or, when empty, removed) while a rebuild runs, by id; {@code null} otherwise.
+     */
+    private volatile Map<Long, Optional<ItemSavedEvent>> changedDuringRebuild;
+
+    public LuceneItemSearchBackend(ItemRepository repository,
+                                   @Value("${shareit.search.lucene.path:data/item-index}") Path path,
+                                   @Value("${shareit.search.lucene.commit-interval:5s}") Duration commitInterval) {
+        this.repository = repository;
+        this.path = path;
+        this.commitInterval = commitInterval;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(path);
+        List<Long> generations = generations();
+        if (!generations.isEmpty()) {
+            generation = generations.get(generations.size() - 1);
+            for (Long stale : generations.subList(0, generations.size() - 1)) {
+                FileSystemUtils.deleteRecursively(generationPath(stale));
+            }
+            index = new LuceneItemIndex(generationPath(generation));
+        }
+        if (index == null || index.size() == 0) {
+            rebuild();
+        }
+        committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-index-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = commitInterval.toMillis();
+        committer.scheduleWithFixedDelay(this::commit, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Item search index opened at {}: {} items", generationPath(generation).toAbsolutePath(), size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        committer.shutdown();
+        swapLock.writeLock().lock();
+        try {
+            index.close();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Slice<Item> search(String text, Pageable pageable) {
+        LuceneItemIndex.Hits hits;
+        swapLock.readLock().lock();
+        try {
+            hits = index.search(text, (int) pageable.getOffset(), pageable.getPageSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        if (hits.ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.total);
+        }
+        Map<Long, Item> byId = repository.findAllWithOwnerByIdIn(hits.ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> items = hits.ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(items, pageable, hits.total);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            Map<Long, Optional<ItemSavedEvent>> changed = changedDuringRebuild;
+            if (changed != null) {
+                changed.put(event.getId(), Optional.of(event));
+            }
+            index.update(event);
+        } catch (IOException e) {
+            log.error("Failed to index item {}", event.getId(), e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removing a user removes the user's items by cascade.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            Map<Long, Optional<ItemSavedEvent>> changed = changedDuringRebuild;
+            if (changed != null) {
+                event.getItemIds().forEach(id -> changed.put(id, Optional.empty()));
+            }
+            index.delete(event.getItemIds());
+        } catch (IOException e) {
+            log.error("Failed to remove items {} of user {} from the index", event.getItemIds(), event.getUserId(), e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a new index from the items table, read in batches by id, and puts it in place of the live one,
+     * which keeps serving searches and updates until then.
+     */
+    public int rebuild() throws IOException {
+        rebuildLock.lock();
+        try {
+            changedDuringRebuild = new ConcurrentHashMap<>();
+            long next = generation + 1;
+            LuceneItemIndex fresh = new LuceneItemIndex(generationPath(next));
+            try {
+                fresh.load(itemsById()::iterator);
+            } catch (IOException | RuntimeException e) {
+                changedDuringRebuild = null;
+                fresh.close();
+                FileSystemUtils.deleteRecursively(generationPath(next));
+                throw e;
+            }
+            LuceneItemIndex replaced;
+            swapLock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Optional<ItemSavedEvent>> change : changedDuringRebuild.entrySet()) {
+                    if (change.getValue().isPresent()) {
+                        fresh.update(change.getValue().get());
+                    } else {
+                        fresh.delete(List.of(change.getKey()));
+                    }
+                }
+                changedDuringRebuild = null;
+                replaced = index;
+                index = fresh;
+                generation = next;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            if (replaced != null) {
+                replaced.close();
+            }
+            FileSystemUtils.deleteRecursively(generationPath(next - 1));
+            int size = size();
+            log.info("Item search index rebuilt: {} items", size);
+            return size;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public int size() {
+        swapLock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void commit() {
+        swapLock.readLock().lock();
+        try {
+            index.commit();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to commit the item search index", e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private Stream<ItemSavedEvent> itemsById() {
+        return Stream.iterate(repository.findSavedEventsAfter(0L, PageRequest.of(0, REBUILD_BATCH_SIZE)),
+                        batch -> !batch.isEmpty(),
+                        batch -> batch.size() < REBUILD_BATCH_SIZE ? List.of()
+                                : repository.findSavedEventsAfter(batch.get(batch.size() - 1).getId(),
+                                PageRequest.of(0, REBUILD_BATCH_SIZE)))
+                .flatMap(List::stream);
+    }
+
+    private List<Long> generations() throws IOException {
+        try (Stream<Path> children = Files.list(path)) {
+            return children.map(child -> child.getFileName().toString())
+                    .filter(name -> name.matches(GENERATION_PREFIX + "\\d+"))
+                    .map(name -> Long.valueOf(name.substring(GENERATION_PREFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path generationPath(long generation) {
+        return path.resolve(GENERATION_PREFIX + generation);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL full-text search over the generated {@code items.search_vector} column (GIN indexed),
+ * ranked with {@code ts_rank}. Every word of the text is matched as a prefix of a word of the name or description,
+ * so unlike the {@code like} backend, text from the middle of a word does not match. Matches are not counted.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = ItemSearchBackend.PROPERTY, havingValue = "postgres")
+public class PostgresItemSearchBackend implements ItemSearchBackend {
+    private final ItemRepository repository;
+
+    @Override
+    public Slice<Item> search(String text, Pageable pageable) {
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        return repository.searchFullText(query, pageable);
+    }
+
+    /**
+     * Words are left in their case: {@code to_tsquery} folds them with the database's rules, as it did the vector.
+     */
+    static String toTsQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
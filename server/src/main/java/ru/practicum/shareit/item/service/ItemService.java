@@ -4,7 +4,9 @@ import ru.practicum.shareit.comment.CommentDto;
 import ru.practicum.shareit.item.dto.*;
 
 import java.nio.file.AccessDeniedException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
 
@@ -18,7 +20,9 @@ public interface ItemService {
 
     List<ItemDto> search(String text, Long from, Long size);
 
+    List<ItemSuggestionDto> suggest(String prefix, Integer size);
+
     CommentDto addComment(Long itemId, Long userId, CommentDto commentDto);
 
-    List<RequestedItemDto> getAllByRequestId(Long requestId);
+    Map<Long, List<RequestedItemDto>> getAllByRequestIds(Collection<Long> requestIds);
 }
@@ -1,14 +1,17 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingDtoForBookingItems;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.comment.CommentAddedEvent;
 import ru.practicum.shareit.comment.CommentDto;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.comment.CommentMapper;
@@ -17,8 +20,14 @@ import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.comment.CommentRepository;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.cache.OwnerItemView;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
+import ru.practicum.shareit.item.suggest.ItemSuggestionIndex;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -27,7 +36,10 @@ import javax.validation.ValidationException;
 import java.nio.file.AccessDeniedException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
@@ -40,6 +52,11 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final RequestRepository requestRepository;
+    private final ItemSearchBackend searchBackend;
+    private final ItemSuggestionIndex suggestionIndex;
+    private final ItemViewCache viewCache;
+    private final RequestMatcher requestMatcher;
+    private final ApplicationEventPublisher eventPublisher;
     private final BookingMapper bookingMapper = BookingMapper.INSTANCE;
     private final ItemMapper mapper = ItemMapper.INSTANCE;
     private final CommentMapper commentMapper = CommentMapper.INSTANCE;
@@ -57,8 +74,10 @@ public class ItemServiceImpl implements ItemService {
             res.setRequest(itemRequest);
         }
 
-
-        return mapper.toDto(repository.save(res));
+        Item saved = repository.save(res);
+        eventPublisher.publishEvent(ItemSavedEvent.of(saved));
+        requestMatcher.match(saved).forEach(eventPublisher::publishEvent);
+        return mapper.toDto(saved);
     }
 
     @Transactional
@@ -83,41 +102,66 @@ public class ItemServiceImpl implements ItemService {
             existingItem.setAvailable(updatedItem.getAvailable());
         }
 
-        return mapper.toDto(repository.save(existingItem));
+        Item saved = repository.save(existingItem);
+        eventPublisher.publishEvent(ItemSavedEvent.of(saved));
+        return mapper.toDto(saved);
     }
 
 
+    /**
+     * Served from {@link ItemViewCache} unless called inside a transaction, which must see its own changes
+     * and must not publish uncommitted state to the cache.
+     */
     @Override
     public ItemBookingDto getById(Long itemId, Long userId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ItemBookingDto view = loadPublicView(itemId);
+            return isOwner(view, userId) ? loadOwnerView(view).getView() : view;
+        }
+        ItemBookingDto view = viewCache.getPublic(itemId, this::loadPublicView);
+        if (!isOwner(view, userId)) {
+            return view;
+        }
+        return viewCache.getOwner(itemId, id -> loadOwnerView(view));
+    }
+
+    private ItemBookingDto loadPublicView(Long itemId) {
         Item item = repository.findById(itemId)
                 .orElseThrow(() -> new NoSuchElementException("Предмета с таким ID не существует"));
         ItemBookingDto result = mapper.toItemDtoWithBooking(item);
 
-        if (userId.equals(item.getOwner().getId())) {
-            LocalDateTime now = LocalDateTime.now();
-
-            BookingDtoForBookingItems lastBooking = findLastBooking(itemId, now);
-            BookingDtoForBookingItems nextBooking = findNextBooking(itemId, now);
-
-            result.setLastBooking(lastBooking);
-            result.setNextBooking(nextBooking);
-        }
-
         List<CommentDto> comments = commentMapper.toDtoList(commentRepository.findAllByItem_Id(itemId));
-
         for (CommentDto comment : comments) {
             comment.setAuthorName(comment.getAuthor().getName());
         }
-
-        if (comments.isEmpty()) {
-            result.setComments(new ArrayList<>());
-        } else {
-            result.setComments(comments);
-        }
+        result.setComments(comments);
 
         return result;
     }
 
+    private OwnerItemView loadOwnerView(ItemBookingDto publicView) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> lastBookings = bookingRepository.findAllByItem_IdAndStartIsBeforeOrderByStartDesc(publicView.getId(), now);
+        List<Booking> nextBookings = bookingRepository.findAllByItem_idAndStartIsAfterOrderByStartAsc(publicView.getId(), now);
+
+        ItemBookingDto result = ItemBookingDto.builder()
+                .id(publicView.getId())
+                .name(publicView.getName())
+                .description(publicView.getDescription())
+                .owner(publicView.getOwner())
+                .available(publicView.getAvailable())
+                .request(publicView.getRequest())
+                .comments(publicView.getComments())
+                .lastBooking(toItemBooking(lastBookings.isEmpty() ? null : lastBookings.get(0)))
+                .nextBooking(toItemBooking(nextBookings.isEmpty() ? null : nextBookings.get(0)))
+                .build();
+        return new OwnerItemView(result, nextBookings.isEmpty() ? null : nextBookings.get(0).getStart());
+    }
+
+    private static boolean isOwner(ItemBookingDto view, Long userId) {
+        return view.getOwner() != null && userId.equals(view.getOwner().getId());
+    }
+
 
     @Override
     public List<ItemBookingDto> getAllByOwner(Long id, Long from, Long size) {
@@ -127,36 +171,34 @@ public class ItemServiceImpl implements ItemService {
         int page = (int) (from / size);
         Pageable pageable = PageRequest.of(page, size.intValue());
         List<Item> items = repository.findAllByOwnerIdOrderByIdAsc(id, pageable).getContent();
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
         LocalDateTime now = LocalDateTime.now();
-        List<ItemBookingDto> result = new ArrayList<>();
-
         List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
-        List<Booking> allBookings = bookingRepository.findAllByItem_IdInAndStartIsBeforeOrderByStartDesc(itemIds, now);
 
+        Map<Long, List<Booking>> bookingsByItem = new HashMap<>();
+        for (Booking booking : bookingRepository.findLastAndNextByItemIdIn(itemIds, now)) {
+            bookingsByItem.computeIfAbsent(booking.getItem().getId(), itemId -> new ArrayList<>()).add(booking);
+        }
+        Map<Long, List<Comment>> commentsByItem = new HashMap<>();
+        for (Comment comment : commentRepository.findAllByItem_IdIn(itemIds)) {
+            commentsByItem.computeIfAbsent(comment.getItem().getId(), itemId -> new ArrayList<>()).add(comment);
+        }
+
+        List<ItemBookingDto> result = new ArrayList<>(items.size());
         for (Item item : items) {
-            Long itemId = item.getId();
             ItemBookingDto itemBookingDto = mapper.toItemDtoWithBooking(item);
+            List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), List.of());
 
-            List<Booking> itemBookings = allBookings.stream()
-                    .filter(b -> b.getItem().getId().equals(itemId))
-                    .collect(Collectors.toList());
-
-            BookingDtoForBookingItems lastBooking = findLastBooking(itemId, now, itemBookings);
-            BookingDtoForBookingItems nextBooking = findNextBooking(itemId, now, itemBookings);
-
-            itemBookingDto.setLastBooking(lastBooking);
-            itemBookingDto.setNextBooking(nextBooking);
+            itemBookingDto.setLastBooking(findLastBooking(now, itemBookings));
+            itemBookingDto.setNextBooking(findNextBooking(now, itemBookings));
 
-            List<CommentDto> comments = commentMapper.toDtoList(commentRepository.findAllByItem_Id(itemId));
+            List<CommentDto> comments = commentMapper.toDtoList(commentsByItem.getOrDefault(item.getId(), List.of()));
             for (CommentDto comment : comments) {
                 comment.setAuthorName(comment.getAuthor().getName());
             }
-
-            if (comments.isEmpty()) {
-                itemBookingDto.setComments(new ArrayList<>());
-            } else {
-                itemBookingDto.setComments(comments);
-            }
+            itemBookingDto.setComments(comments);
 
             result.add(itemBookingDto);
         }
@@ -164,35 +206,33 @@ public class ItemServiceImpl implements ItemService {
         return result;
     }
 
-    public BookingDtoForBookingItems findLastBooking(Long itemId, LocalDateTime now, List<Booking> itemBookings) {
-        List<Booking> lastBookings = bookingRepository.findAllByItem_IdAndStartIsBeforeOrderByStartDesc(itemId, now);
-
-        if (!lastBookings.isEmpty()) {
-            BookingDtoForBookingItems result = bookingMapper.toItemWithBookings(lastBookings.get(0));
-            BookingStatus status = result.getStatus();
-
-            if (status != BookingStatus.CANCELED && status != BookingStatus.REJECTED) {
-                result.setBookerId(result.getBooker().getId());
-                return result;
-            } else return null;
-
+    private BookingDtoForBookingItems findLastBooking(LocalDateTime now, List<Booking> itemBookings) {
+        Booking last = null;
+        for (Booking booking : itemBookings) {
+            if (booking.getStart().isBefore(now) && (last == null || booking.getStart().isAfter(last.getStart()))) {
+                last = booking;
+            }
         }
-        return null;
+        return toItemBooking(last);
     }
 
-    public BookingDtoForBookingItems findNextBooking(Long itemId, LocalDateTime now, List<Booking> itemBookings) {
-        List<Booking> nextBookings = bookingRepository.findAllByItem_idAndStartIsAfterOrderByStartAsc(itemId, now);
-        if (!nextBookings.isEmpty()) {
-            BookingDtoForBookingItems result = bookingMapper.toItemWithBookings(nextBookings.get(0));
-            BookingStatus status = result.getStatus();
-
-            if (status != BookingStatus.CANCELED && status != BookingStatus.REJECTED) {
-                result.setBookerId(result.getBooker().getId());
-                return result;
-            } else return null;
+    private BookingDtoForBookingItems findNextBooking(LocalDateTime now, List<Booking> itemBookings) {
+        Booking next = null;
+        for (Booking booking : itemBookings) {
+            if (booking.getStart().isAfter(now) && (next == null || booking.getStart().isBefore(next.getStart()))) {
+                next = booking;
+            }
+        }
+        return toItemBooking(next);
+    }
 
+    private BookingDtoForBookingItems toItemBooking(Booking booking) {
+        if (booking == null || booking.getStatus() == BookingStatus.CANCELED || booking.getStatus() == BookingStatus.REJECTED) {
+            return null;
         }
-        return null;
+        BookingDtoForBookingItems result = bookingMapper.toItemWithBookings(booking);
+        result.setBookerId(result.getBooker().getId());
+        return result;
     }
 
 
@@ -208,10 +248,18 @@ public class ItemServiceImpl implements ItemService {
 
         int page = (int) (from / size);
         Pageable pageable = PageRequest.of(page, size.intValue());
-        List<Item> items = repository.search(text, pageable).getContent();
+        List<Item> items = searchBackend.search(text, pageable).getContent();
         return mapper.itemsToItemDto(items);
     }
 
+    @Override
+    public List<ItemSuggestionDto> suggest(String prefix, Integer size) {
+        if (size <= 0) {
+            throw new ValidationException("Количество подсказок должно быть положительным.");
+        }
+        return suggestionIndex.suggest(prefix, size);
+    }
+
     @Transactional
     @Override
     public CommentDto addComment(Long itemId, Long userId, CommentDto commentDto) {
@@ -227,6 +275,8 @@ public class ItemServiceImpl implements ItemService {
 
             Comment savedComment = commentRepository.save(commentMapper.fromDto(commentDto));
 
+            eventPublisher.publishEvent(new CommentAddedEvent(savedComment.getId(), itemId));
+
             CommentDto result = commentMapper.toDto(savedComment);
             result.setAuthorName(user.getName());
             return result;
@@ -237,39 +287,23 @@ public class ItemServiceImpl implements ItemService {
 
     public BookingDtoForBookingItems findLastBooking(Long itemId, LocalDateTime now) {
         List<Booking> lastBookings = bookingRepository.findAllByItem_IdAndStartIsBeforeOrderByStartDesc(itemId, now);
-
-        if (!lastBookings.isEmpty()) {
-            BookingDtoForBookingItems result = bookingMapper.toItemWithBookings(lastBookings.get(0));
-            BookingStatus status = result.getStatus();
-
-            if (status != BookingStatus.CANCELED && status != BookingStatus.REJECTED) {
-                result.setBookerId(result.getBooker().getId());
-                return result;
-            } else return null;
-
-        }
-        return null;
+        return toItemBooking(lastBookings.isEmpty() ? null : lastBookings.get(0));
     }
 
-
     public BookingDtoForBookingItems findNextBooking(Long itemId, LocalDateTime now) {
         List<Booking> nextBookings = bookingRepository.findAllByItem_idAndStartIsAfterOrderByStartAsc(itemId, now);
-        if (!nextBookings.isEmpty()) {
-            BookingDtoForBookingItems result = bookingMapper.toItemWithBookings(nextBookings.get(0));
-            BookingStatus status = result.getStatus();
-
-            if (status != BookingStatus.CANCELED && status != BookingStatus.REJECTED) {
-                result.setBookerId(result.getBooker().getId());
-                return result;
-            } else return null;
-
-        }
-        return null;
+        return toItemBooking(nextBookings.isEmpty() ? null : nextBookings.get(0));
     }
 
-    public List<RequestedItemDto> getAllByRequestId(Long requestId) {
-        List<RequestedItemDto> res = mapper.toListRequestedItemDto(repository.findAllByRequestId(requestId));
-
-        return res;
+    @Override
+    public Map<Long, List<RequestedItemDto>> getAllByRequestIds(Collection<Long> requestIds) {
+        Map<Long, List<RequestedItemDto>> result = new HashMap<>();
+        if (requestIds.isEmpty()) {
+            return result;
+        }
+        for (RequestedItemDto item : repository.findAllByRequestIdIn(requestIds)) {
+            result.computeIfAbsent(item.getRequestId(), requestId -> new ArrayList<>()).add(item);
+        }
+        return result;
     }
 }
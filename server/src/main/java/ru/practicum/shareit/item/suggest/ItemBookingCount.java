@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.suggest;
+
+public interface ItemBookingCount {
+    Long getItemId();
+
+    Long getBookings();
+}
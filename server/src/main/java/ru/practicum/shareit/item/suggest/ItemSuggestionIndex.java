@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item.suggest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory typeahead over the names of available items, ranked by how many bookings each item has.
+ * Loaded once on startup and kept current from item, booking and user events after their transactions commit.
+ * Booking counts are kept apart from the trie, so an item that is hidden and shown again keeps its rank.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSuggestionIndex {
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final SuggestionTrie trie = new SuggestionTrie(MAX_SUGGESTIONS);
+    private final Map<Long, Long> bookings = new HashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Reads the items and their booking counts with {@link #writeLock} held, so that an event handled meanwhile
+     * waits and is applied over the loaded state rather than being overwritten by it.
+     */
+    @PostConstruct
+    public void load() {
+        writeLock.lock();
+        try {
+            List<ItemBookingCount> counts = bookingRepository.countBookingsByItem();
+            List<ItemNameView> items = itemRepository.findAllAvailableNames();
+            for (ItemBookingCount count : counts) {
+                bookings.put(count.getItemId(), count.getBookings());
+            }
+            for (ItemNameView item : items) {
+                trie.put(item.getId(), item.getName(), bookings.getOrDefault(item.getId(), 0L));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Item suggestion index loaded: {} items", trie.size());
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int size) {
+        return trie.top(prefix, Math.min(size, MAX_SUGGESTIONS)).stream()
+                .map(entry -> new ItemSuggestionDto(entry.id, entry.name))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        writeLock.lock();
+        try {
+            if (event.isAvailable()) {
+                trie.put(event.getId(), event.getName(), bookings.getOrDefault(event.getId(), 0L));
+            } else {
+                trie.remove(event.getId());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the items removed with their owner. Bookings removed with their booker still count towards
+     * the rank until the next load.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            for (Long itemId : event.getItemIds()) {
+                trie.remove(itemId);
+                bookings.remove(itemId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.isCreated()) {
+            writeLock.lock();
+            try {
+                bookings.merge(event.getItemId(), 1L, Long::sum);
+                trie.addWeight(event.getItemId(), 1);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+}
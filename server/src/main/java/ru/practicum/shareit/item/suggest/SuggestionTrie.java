@@ -0,0 +1,266 @@
+package ru.practicum.shareit.item.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix tree over the words of item names. Each node keeps the {@code k} heaviest entries below it,
+ * so a lookup is a walk down the prefix plus a copy of that list. Children are kept in sorted arrays.
+ * <p>
+ * Writers must be serialized by the caller. Readers need no locking: node state is replaced,
+ * never mutated, and published through volatile fields.
+ */
+class SuggestionTrie {
+    static final int MAX_KEY_LENGTH = 32;
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong((Entry entry) -> entry.weight).reversed()
+            .thenComparing(entry -> entry.name)
+            .thenComparingLong(entry -> entry.id);
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final int k;
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    SuggestionTrie(int k) {
+        this.k = k;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long weight(Long id) {
+        Entry entry = entries.get(id);
+        return entry == null ? 0 : entry.weight;
+    }
+
+    void put(Long id, String name, long weight) {
+        remove(id);
+        Entry entry = new Entry(id, name, weight);
+        entries.put(id, entry);
+        for (String key : keys(name)) {
+            insert(key, entry);
+        }
+    }
+
+    void addWeight(Long id, long delta) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            put(id, entry.name, entry.weight + delta);
+        }
+    }
+
+    void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            for (String key : keys(entry.name)) {
+                delete(key, entry);
+            }
+        }
+    }
+
+    List<Entry> top(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int depth = Math.min(key.length(), MAX_KEY_LENGTH);
+        for (int i = 0; i < depth && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        Entry[] top = node.top;
+        List<Entry> result = new ArrayList<>(Math.min(limit, top.length));
+        for (Entry entry : top) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (key.length() <= MAX_KEY_LENGTH || hasWordStartingWith(entry.name, key)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private void insert(String key, Entry entry) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].getOrAddChild(key.charAt(i));
+        }
+        Node leaf = path[key.length()];
+        leaf.terminals = append(leaf.terminals, entry);
+        for (int i = key.length(); i >= 0; i--) {
+            path[i].recompute(k);
+        }
+    }
+
+    private void delete(String key, Entry entry) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node leaf = path[key.length()];
+        leaf.terminals = without(leaf.terminals, entry);
+        for (int i = key.length(); i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.isEmpty()) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            } else {
+                node.recompute(k);
+            }
+        }
+    }
+
+    private static boolean hasWordStartingWith(String name, String prefix) {
+        String normalized = normalize(name);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (isWordStart(normalized, i) && normalized.startsWith(prefix, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordStart(String text, int i) {
+        return Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+    }
+
+    /**
+     * Lowercased name suffixes starting at each word, cut to {@link #MAX_KEY_LENGTH}.
+     */
+    static List<String> keys(String name) {
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (isWordStart(normalized, i)) {
+                String key = normalized.substring(i, Math.min(normalized.length(), i + MAX_KEY_LENGTH));
+                if (!keys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] result = Arrays.copyOf(entries, entries.length + 1);
+        result[entries.length] = entry;
+        return result;
+    }
+
+    private static Entry[] without(Entry[] entries, Entry entry) {
+        return Arrays.stream(entries).filter(e -> e != entry).toArray(Entry[]::new);
+    }
+
+    static final class Entry {
+        final Long id;
+        final String name;
+        final long weight;
+
+        Entry(Long id, String name, long weight) {
+            this.id = id;
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Children {
+        static final Children NONE = new Children(new char[0], new Node[0]);
+
+        final char[] labels;
+        final Node[] nodes;
+
+        Children(char[] labels, Node[] nodes) {
+            this.labels = labels;
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class Node {
+        volatile Children children = Children.NONE;
+        volatile Entry[] terminals = NO_ENTRIES;
+        volatile Entry[] top = NO_ENTRIES;
+
+        Node child(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            return index >= 0 ? current.nodes[index] : null;
+        }
+
+        Node getOrAddChild(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            if (index >= 0) {
+                return current.nodes[index];
+            }
+            int insertAt = -index - 1;
+            int size = current.labels.length;
+            char[] labels = new char[size + 1];
+            Node[] nodes = new Node[size + 1];
+            System.arraycopy(current.labels, 0, labels, 0, insertAt);
+            System.arraycopy(current.nodes, 0, nodes, 0, insertAt);
+            System.arraycopy(current.labels, insertAt, labels, insertAt + 1, size - insertAt);
+            System.arraycopy(current.nodes, insertAt, nodes, insertAt + 1, size - insertAt);
+            Node child = new Node();
+            labels[insertAt] = label;
+            nodes[insertAt] = child;
+            children = new Children(labels, nodes);
+            return child;
+        }
+
+        void removeChild(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            if (index < 0) {
+                return;
+            }
+            int size = current.labels.length;
+            char[] labels = new char[size - 1];
+            Node[] nodes = new Node[size - 1];
+            System.arraycopy(current.labels, 0, labels, 0, index);
+            System.arraycopy(current.nodes, 0, nodes, 0, index);
+            System.arraycopy(current.labels, index + 1, labels, index, size - index - 1);
+            System.arraycopy(current.nodes, index + 1, nodes, index, size - index - 1);
+            children = new Children(labels, nodes);
+        }
+
+        boolean isEmpty() {
+            return terminals.length == 0 && children.labels.length == 0;
+        }
+
+        void recompute(int k) {
+            Map<Long, Entry> candidates = new LinkedHashMap<>();
+            for (Entry entry : terminals) {
+                candidates.putIfAbsent(entry.id, entry);
+            }
+            for (Node child : children.nodes) {
+                for (Entry entry : child.top) {
+                    candidates.putIfAbsent(entry.id, entry);
+                }
+            }
+            top = candidates.values().stream()
+                    .sorted(ORDER)
+                    .limit(k)
+                    .toArray(Entry[]::new);
+        }
+    }
+}
@@ -7,5 +7,7 @@ public class ItemApiPathConstants {
     public static final String ITEMS_PATH = "/items";
     public static final String ITEM_ID_PATH = "/{itemId}";
     public static final String SEARCH_ITEMS_PATH = "/search";
+    public static final String SUGGEST_ITEMS_PATH = "/suggest";
+    public static final String IMPORT_ITEMS_PATH = "/import";
     public static final String COMMENTS = "/{itemId}/comment";
 }
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.Constants;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestForDto;
+import ru.practicum.shareit.request.match.RequestMatchSubscriptions;
 import ru.practicum.shareit.request.service.RequestService;
 
 import javax.validation.Valid;
@@ -18,6 +21,7 @@ import java.util.List;
 @RequestMapping(path = Constants.REQUEST_PATH)
 public class ItemRequestController {
     private final RequestService service;
+    private final RequestMatchSubscriptions matchSubscriptions;
 
     @PostMapping
     public ResponseEntity<ItemRequestDto> add(@Valid @RequestBody ItemRequestDto request, @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -32,8 +36,23 @@ public class ItemRequestController {
     @GetMapping(path = Constants.ALL)
     public ResponseEntity<List<ItemRequestDto>> getAll(@RequestParam(defaultValue = "0") Long from,
                                                        @RequestParam(defaultValue = "100") Long size,
+                                                       @RequestParam(required = false) String after,
                                                        @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ResponseEntity.ok(service.getAll(from, size, userId));
+        List<ItemRequestDto> requests = after == null
+                ? service.getAll(from, size, userId)
+                : service.getAllAfter(after, size, userId);
+        if (requests.isEmpty() || requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        RequestCursor next = RequestCursor.of(requests.get(requests.size() - 1));
+        return ResponseEntity.ok()
+                .header(Constants.NEXT_CURSOR_HEADER, next.encode())
+                .body(requests);
+    }
+
+    @GetMapping(path = Constants.MATCHES, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToMatches(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return matchSubscriptions.subscribe(userId);
     }
 
     @GetMapping(path = Constants.BY_ID)
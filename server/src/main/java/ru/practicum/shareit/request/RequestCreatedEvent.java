@@ -0,0 +1,25 @@
+package ru.practicum.shareit.request;
+
+import lombok.Value;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the request service after a request is saved; listeners see the saved state.
+ */
+@Value
+public class RequestCreatedEvent {
+    Long id;
+
+    String description;
+
+    LocalDateTime created;
+
+    UserDto requester;
+
+    public static RequestCreatedEvent of(ItemRequestDto request) {
+        return new RequestCreatedEvent(request.getId(), request.getDescription(), request.getCreated(), request.getRequester());
+    }
+}
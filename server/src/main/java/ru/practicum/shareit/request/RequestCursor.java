@@ -0,0 +1,52 @@
+package ru.practicum.shareit.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position {@code (created, id)} of the last request on a page, ordered by created and id descending.
+ */
+@Getter
+@AllArgsConstructor
+public class RequestCursor implements Comparable<RequestCursor> {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime created;
+    private final Long id;
+
+    public static RequestCursor of(ItemRequestDto request) {
+        return new RequestCursor(request.getCreated(), request.getId());
+    }
+
+    public static RequestCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new RequestCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор пагинации: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = created + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Orders positions the way the feed lists them: newer requests first.
+     */
+    @Override
+    public int compareTo(RequestCursor other) {
+        int byCreated = other.created.compareTo(created);
+        return byCreated != 0 ? byCreated : other.id.compareTo(id);
+    }
+}
@@ -1,17 +1,37 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.match.OpenRequestView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long requesterId);
 
-    @Query("SELECT req FROM ItemRequest req WHERE req.requester.id <> :userId ORDER BY req.created DESC")
-    Page<ItemRequest> getAllRequests(@Param("userId") Long userId, Pageable pageable);
+    @Query("SELECT req FROM ItemRequest req JOIN FETCH req.requester WHERE req.requester.id <> :userId "
+            + "ORDER BY req.created DESC, req.id DESC")
+    Slice<ItemRequest> getAllRequests(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT req FROM ItemRequest req JOIN FETCH req.requester WHERE req.requester.id <> :userId "
+            + "AND (req.created < :created OR (req.created = :created AND req.id < :id)) "
+            + "ORDER BY req.created DESC, req.id DESC")
+    Slice<ItemRequest> getAllRequestsAfter(@Param("userId") Long userId, @Param("created") LocalDateTime created,
+                                           @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT req FROM ItemRequest req JOIN FETCH req.requester WHERE req.id IN :ids")
+    List<ItemRequest> findAllWithRequesterByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT req FROM ItemRequest req JOIN FETCH req.requester ORDER BY req.created DESC, req.id DESC")
+    List<ItemRequest> findRecent(Pageable pageable);
+
+    @Query("SELECT req.id AS id, req.description AS description, req.requester.id AS requesterId FROM ItemRequest req "
+            + "WHERE NOT EXISTS (SELECT it.id FROM Item it WHERE it.request.id = req.id)")
+    List<OpenRequestView> findAllOpen();
 }
 
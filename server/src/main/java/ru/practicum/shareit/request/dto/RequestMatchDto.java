@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.*;
+
+@ToString
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RequestMatchDto {
+    private Long requestId;
+    private Long itemId;
+    private String itemName;
+    private String itemDescription;
+    private boolean explicit;
+}
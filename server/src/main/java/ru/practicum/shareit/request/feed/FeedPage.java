@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.Value;
+import ru.practicum.shareit.request.RequestCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+/**
+ * Part of a {@code /requests/all} page served from the {@link RequestFeed}. An incomplete page is continued
+ * from the database with the requests ordered after {@code resumeAfter}.
+ */
+@Value
+public class FeedPage {
+    List<ItemRequestDto> requests;
+
+    boolean complete;
+
+    RequestCursor resumeAfter;
+}
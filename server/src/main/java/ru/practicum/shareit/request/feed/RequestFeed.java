@@ -0,0 +1,260 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestCreatedEvent;
+import ru.practicum.shareit.request.RequestCursor;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ring of the most recent requests of all users, newest first, shared by every reader of {@code /requests/all}.
+ * Loaded on startup and fed from {@link RequestCreatedEvent} after commit; once full, every new request
+ * evicts the oldest one. The ring holds every request from its oldest entry onwards, so a page that runs
+ * past that entry is continued from the database with {@link FeedPage#getResumeAfter()}, unless nothing was
+ * evicted since the load found fewer requests than the capacity. Only the requester's id is kept; the
+ * requester is read through {@link UserService} when a page is served, and a removed user's requests,
+ * which the cascade removed from the database, leave the ring with them.
+ */
+@Slf4j
+@Component
+public class RequestFeed {
+    private final RequestRepository repository;
+    private final UserService userService;
+    private final Entry[] ring;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int head;
+    private int size;
+    /**
+     * Whether the ring holds every request in the table.
+     */
+    private boolean wholeTable;
+
+    public RequestFeed(RequestRepository repository, UserService userService,
+                       @Value("${shareit.requests.feed.capacity:1000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Feed capacity must be positive: " + capacity);
+        }
+        this.repository = repository;
+        this.userService = userService;
+        this.ring = new Entry[capacity];
+    }
+
+    @PostConstruct
+    public void load() {
+        List<ItemRequest> recent = repository.findRecent(PageRequest.of(0, ring.length));
+        lock.writeLock().lock();
+        try {
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                ItemRequest request = recent.get(i);
+                insert(new Entry(request.getId(), request.getDescription(), request.getCreated(),
+                        request.getRequester().getId()));
+            }
+            wholeTable = recent.size() < ring.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Request feed loaded: {} of {} requests", recent.size(), ring.length);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestCreated(RequestCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            insert(new Entry(event.getId(), event.getDescription(), event.getCreated(), event.getRequester().getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int kept = 0;
+            for (int index = 0; index < size; index++) {
+                Entry entry = get(index);
+                if (!entry.requesterId.equals(event.getUserId())) {
+                    set(kept++, entry);
+                }
+            }
+            for (int index = kept; index < size; index++) {
+                set(index, null);
+            }
+            size = kept;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Requests of other users than {@code userId} after the {@code after} position (or from the newest one),
+     * skipping the first {@code offset} of them. When the ring runs out before the page is full, the page is
+     * not complete and carries the position to continue from in the database ({@code null} for the newest).
+     */
+    public FeedPage page(Long userId, RequestCursor after, long offset, int pageSize) {
+        List<Entry> entries = new ArrayList<>(Math.min(pageSize, ring.length));
+        boolean complete;
+        RequestCursor resumeAfter;
+        lock.readLock().lock();
+        try {
+            int index = after == null ? 0 : firstAfter(after);
+            long skip = offset;
+            for (; index < size && entries.size() < pageSize; index++) {
+                Entry entry = get(index);
+                if (entry.requesterId.equals(userId)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                entries.add(entry);
+            }
+            complete = entries.size() == pageSize || wholeTable;
+            resumeAfter = complete ? null : lastPosition(after);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new FeedPage(toDtos(entries), complete, resumeAfter);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves the requesters outside the lock. A requester removed meanwhile took the request with them.
+     */
+    private List<ItemRequestDto> toDtos(List<Entry> entries) {
+        Map<Long, UserDto> requesters = new HashMap<>();
+        List<ItemRequestDto> requests = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            UserDto requester;
+            try {
+                requester = requesters.computeIfAbsent(entry.requesterId, userService::getById);
+            } catch (NoSuchElementException e) {
+                continue;
+            }
+            requests.add(entry.toDto(requester));
+        }
+        return requests;
+    }
+
+    private RequestCursor lastPosition(RequestCursor after) {
+        if (size == 0) {
+            return after;
+        }
+        RequestCursor oldest = get(size - 1).position();
+        return after == null || after.compareTo(oldest) < 0 ? oldest : after;
+    }
+
+    /**
+     * Index of the first entry ordered after {@code cursor}, or {@code size} if there is none.
+     */
+    private int firstAfter(RequestCursor cursor) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (get(middle).position().compareTo(cursor) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Puts the entry at its place by {@code (created, id)}. Commits arrive nearly in order, so this is
+     * normally a write at the head; an entry older than a full ring is not part of it and is dropped.
+     */
+    private void insert(Entry entry) {
+        RequestCursor position = entry.position();
+        int index = 0;
+        while (index < size) {
+            int order = get(index).position().compareTo(position);
+            if (order == 0) {
+                return;
+            }
+            if (order > 0) {
+                break;
+            }
+            index++;
+        }
+        if (size == ring.length) {
+            wholeTable = false;
+            if (index == size) {
+                return;
+            }
+            size--;
+        }
+        head = (head + ring.length - 1) % ring.length;
+        for (int i = 0; i < index; i++) {
+            set(i, get(i + 1));
+        }
+        set(index, entry);
+        size++;
+    }
+
+    private Entry get(int index) {
+        return ring[(head + index) % ring.length];
+    }
+
+    private void set(int index, Entry entry) {
+        ring[(head + index) % ring.length] = entry;
+    }
+
+    private static final class Entry {
+        final Long id;
+        final String description;
+        final LocalDateTime created;
+        final Long requesterId;
+
+        Entry(Long id, String description, LocalDateTime created, Long requesterId) {
+            this.id = id;
+            this.description = description;
+            this.created = created;
+            this.requesterId = requesterId;
+        }
+
+        RequestCursor position() {
+            return new RequestCursor(created, id);
+        }
+
+        ItemRequestDto toDto(UserDto requester) {
+            return ItemRequestDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .requester(requester)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request.match;
+
+public interface OpenRequestView {
+    Long getId();
+
+    String getDescription();
+
+    Long getRequesterId();
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.Value;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+
+/**
+ * Published by the item service for every request a new item answers; delivered to the requester after commit.
+ */
+@Value
+public class RequestMatchEvent {
+    Long requesterId;
+
+    RequestMatchDto match;
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.request.match;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.sse.SseSender;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent event streams of request matches, one or more per requester. Matches for a requester without
+ * an open stream are kept, up to {@value #MAX_PENDING} per requester, and sent when they subscribe. Matches are
+ * queued to the streams under the requester's {@link Subscriber#lock} and written by an {@link SseSender}, so
+ * the thread that saved the item never waits for a client; a stream that falls {@code buffer} matches behind is
+ * closed, as is one whose client stops reading for {@code send-timeout}, and the client reconnects. A requester
+ * is tracked only while they have a stream or undelivered matches, and is forgotten when removed.
+ */
+@Component
+public class RequestMatchSubscriptions {
+    public static final String EVENT_NAME = "match";
+    static final int MAX_PENDING = 100;
+
+    private final UserService userService;
+    private final long timeoutMillis;
+    private final SseSender sender;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    public RequestMatchSubscriptions(UserService userService,
+                                     @Value("${shareit.requests.match.subscription-timeout:30m}") Duration timeout,
+                                     @Value("${shareit.requests.match.buffer:256}") int bufferSize,
+                                     @Value("${shareit.requests.match.sender-threads:4}") int senderThreads,
+                                     @Value("${shareit.requests.match.send-timeout:10s}") Duration sendTimeout) {
+        if (bufferSize < MAX_PENDING) {
+            throw new IllegalArgumentException("Match stream buffer must hold the " + MAX_PENDING
+                    + " pending matches: " + bufferSize);
+        }
+        this.userService = userService;
+        this.timeoutMillis = timeout.toMillis();
+        this.sender = new SseSender("request-match-stream", senderThreads, bufferSize, sendTimeout);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        userService.checkExists(userId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = lock(userId);
+        try {
+            SseSender.Stream stream = sender.open(emitter, closed -> unsubscribe(userId, closed));
+            RequestMatchDto match;
+            while ((match = subscriber.matches.pollFirst()) != null) {
+                stream.offer(event(match));
+            }
+            subscriber.streams.add(stream);
+        } finally {
+            release(userId, subscriber);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestMatched(RequestMatchEvent event) {
+        Long userId = event.getRequesterId();
+        Subscriber subscriber = lock(userId);
+        try {
+            boolean queued = false;
+            for (SseSender.Stream stream : new ArrayList<>(subscriber.streams)) {
+                queued |= stream.offer(event(event.getMatch()));
+            }
+            if (!queued) {
+                if (subscriber.matches.size() == MAX_PENDING) {
+                    subscriber.matches.pollFirst();
+                }
+                subscriber.matches.addLast(event.getMatch());
+            }
+        } finally {
+            release(userId, subscriber);
+        }
+    }
+
+    /**
+     * Removing a user removes the user's requests by cascade; their streams are closed and pending matches dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        Subscriber subscriber = lock(event.getUserId());
+        List<SseSender.Stream> closed;
+        try {
+            closed = new ArrayList<>(subscriber.streams);
+            subscriber.streams.clear();
+            subscriber.matches.clear();
+        } finally {
+            release(event.getUserId(), subscriber);
+        }
+        closed.forEach(SseSender.Stream::close);
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.shutdown();
+    }
+
+    void unsubscribe(Long userId, SseSender.Stream stream) {
+        Subscriber subscriber = lock(userId);
+        try {
+            subscriber.streams.remove(stream);
+        } finally {
+            release(userId, subscriber);
+        }
+    }
+
+    int pendingCount(Long userId) {
+        Subscriber subscriber = subscribers.get(userId);
+        if (subscriber == null) {
+            return 0;
+        }
+        subscriber.lock.lock();
+        try {
+            return subscriber.matches.size();
+        } finally {
+            subscriber.lock.unlock();
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Returns the requester's state with its lock held, creating it if needed. A state found already released
+     * has left the map, so the lookup is repeated.
+     */
+    private Subscriber lock(Long userId) {
+        while (true) {
+            Subscriber subscriber = subscribers.computeIfAbsent(userId, id -> new Subscriber());
+            subscriber.lock.lock();
+            if (!subscriber.released) {
+                return subscriber;
+            }
+            subscriber.lock.unlock();
+        }
+    }
+
+    /**
+     * Unlocks the requester's state, first dropping it from the map if it has neither streams nor matches. A stream
+     * closed while the lock is held unsubscribes reentrantly; only the outermost release may drop the state.
+     */
+    private void release(Long userId, Subscriber subscriber) {
+        try {
+            if (subscriber.lock.getHoldCount() == 1 && subscriber.streams.isEmpty() && subscriber.matches.isEmpty()) {
+                subscriber.released = true;
+                subscribers.remove(userId, subscriber);
+            }
+        } finally {
+            subscriber.lock.unlock();
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(RequestMatchDto match) {
+        return SseEmitter.event()
+                .name(EVENT_NAME)
+                .id(match.getRequestId() + ":" + match.getItemId())
+                .data(match);
+    }
+
+    private static final class Subscriber {
+        final ReentrantLock lock = new ReentrantLock();
+        final List<SseSender.Stream> streams = new ArrayList<>();
+        final Deque<RequestMatchDto> matches = new ArrayDeque<>();
+        boolean released;
+    }
+}
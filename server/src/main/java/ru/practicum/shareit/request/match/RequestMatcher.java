@@ -0,0 +1,182 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestCreatedEvent;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index from description terms to the requests nobody has answered yet. A new item is matched against
+ * it by the terms of its name and description; a request leaves the index once an item answers it by id.
+ * Loaded on startup and kept current from request, match and user events after their transactions commit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestMatcher {
+    public static final int MAX_MATCHES_PER_ITEM = 20;
+
+    private final RequestRepository repository;
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, OpenRequest> requests = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+        List<OpenRequestView> open = repository.findAllOpen();
+        lock.writeLock().lock();
+        try {
+            for (OpenRequestView request : open) {
+                put(request.getId(), request.getRequesterId(), request.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Request matcher loaded: {} open requests, {} terms", requests.size(), postings.size());
+    }
+
+    /**
+     * Requests the item answers: the one named by its request id, if any, and, for an available item,
+     * the open requests of other users sharing the most terms with it.
+     */
+    public List<RequestMatchEvent> match(Item item) {
+        List<RequestMatchEvent> matches = new ArrayList<>();
+        ItemRequest answered = item.getRequest();
+        if (answered != null) {
+            matches.add(new RequestMatchEvent(answered.getRequester().getId(), toDto(answered.getId(), item, true)));
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return matches;
+        }
+        Long ownerId = item.getOwner().getId();
+        Map<Long, Integer> shared = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String term : RequestTerms.of(item.getName(), item.getDescription())) {
+                for (Long requestId : postings.getOrDefault(term, Set.of())) {
+                    shared.merge(requestId, 1, Integer::sum);
+                }
+            }
+            shared.entrySet().stream()
+                    .filter(entry -> answered == null || !entry.getKey().equals(answered.getId()))
+                    .filter(entry -> !requests.get(entry.getKey()).requesterId.equals(ownerId))
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                    .limit(MAX_MATCHES_PER_ITEM)
+                    .forEach(entry -> matches.add(new RequestMatchEvent(requests.get(entry.getKey()).requesterId,
+                            toDto(entry.getKey(), item, false))));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return requests.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestCreated(RequestCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            put(event.getId(), event.getRequester().getId(), event.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestMatched(RequestMatchEvent event) {
+        if (!event.getMatch().isExplicit()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(event.getMatch().getRequestId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removing a user removes the user's requests by cascade.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isRemoved()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Long> removed = requests.entrySet().stream()
+                    .filter(entry -> entry.getValue().requesterId.equals(event.getUserId()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            removed.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Long requestId, Long requesterId, String description) {
+        if (requests.containsKey(requestId)) {
+            return;
+        }
+        Set<String> terms = RequestTerms.of(description);
+        requests.put(requestId, new OpenRequest(requesterId, terms));
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new HashSet<>()).add(requestId);
+        }
+    }
+
+    private void remove(Long requestId) {
+        OpenRequest request = requests.remove(requestId);
+        if (request == null) {
+            return;
+        }
+        for (String term : request.terms) {
+            Set<Long> ids = postings.get(term);
+            ids.remove(requestId);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static RequestMatchDto toDto(Long requestId, Item item, boolean explicit) {
+        return new RequestMatchDto(requestId, item.getId(), item.getName(), item.getDescription(), explicit);
+    }
+
+    private static final class OpenRequest {
+        final Long requesterId;
+        final Set<String> terms;
+
+        OpenRequest(Long requesterId, Set<String> terms) {
+            this.requesterId = requesterId;
+            this.terms = terms;
+        }
+    }
+}
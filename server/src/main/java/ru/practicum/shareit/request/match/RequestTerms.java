@@ -0,0 +1,50 @@
+package ru.practicum.shareit.request.match;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits request descriptions and item texts into match terms: lower-cased words of at least three letters
+ * without the filler words of a request, cut to their first {@value #STEM_LENGTH} letters so that
+ * "дрель" and "дрели" or "drill" and "drills" meet.
+ */
+final class RequestTerms {
+    static final int STEM_LENGTH = 4;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "нужен", "нужна", "нужно", "нужны", "ищу", "ищем", "для", "кто", "есть", "может", "можно", "какой",
+            "какая", "какое", "или", "как", "что", "чтобы", "очень", "пожалуйста", "хочу", "буду", "был", "была",
+            "the", "and", "for", "need", "needed", "looking", "anyone", "with", "want", "please", "some");
+
+    private RequestTerms() {
+    }
+
+    static Set<String> of(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            String normalized = text.toLowerCase(Locale.ROOT);
+            int start = -1;
+            for (int i = 0; i <= normalized.length(); i++) {
+                boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+                if (letter && start < 0) {
+                    start = i;
+                } else if (!letter && start >= 0) {
+                    add(terms, normalized.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static void add(Set<String> terms, String word) {
+        if (word.length() < MIN_WORD_LENGTH || STOP_WORDS.contains(word)) {
+            return;
+        }
+        terms.add(word.length() > STEM_LENGTH ? word.substring(0, STEM_LENGTH) : word);
+    }
+}
@@ -12,5 +12,7 @@ public interface RequestService {
 
     List<ItemRequestDto> getAll(Long from, Long size, Long userId);
 
+    List<ItemRequestDto> getAllAfter(String after, Long size, Long userId);
+
     ItemRequestForDto getById(Long requestId, Long userId);
 }
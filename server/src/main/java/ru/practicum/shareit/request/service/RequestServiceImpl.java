@@ -1,15 +1,21 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.RequestedItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.RequestCreatedEvent;
+import ru.practicum.shareit.request.RequestCursor;
 import ru.practicum.shareit.request.RequestMapper;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestForDto;
+import ru.practicum.shareit.request.feed.FeedPage;
+import ru.practicum.shareit.request.feed.RequestFeed;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
@@ -17,8 +23,12 @@ import ru.practicum.shareit.user.service.UserService;
 import javax.transaction.Transactional;
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +36,8 @@ public class RequestServiceImpl implements RequestService {
     private final RequestRepository repository;
     private final UserService userService;
     private final ItemService itemService;
+    private final RequestFeed feed;
+    private final ApplicationEventPublisher eventPublisher;
     private final RequestMapper mapper = RequestMapper.INSTANCE;
 
     @Transactional
@@ -33,22 +45,26 @@ public class RequestServiceImpl implements RequestService {
     public ItemRequestDto add(ItemRequestDto requestDto, Long userId) {
         UserDto userDto = userService.getById(userId);
         requestDto.setRequester(userDto);
-        requestDto.setCreated(LocalDateTime.now());
+        // the column keeps microseconds; a finer value would place the feed's copy apart from the stored row
+        requestDto.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         ItemRequest request = mapper.fromDto(requestDto);
         ItemRequestDto res = mapper.toDto(repository.save(request));
+        eventPublisher.publishEvent(RequestCreatedEvent.of(res));
 
         return res;
     }
 
     @Override
     public List<ItemRequestForDto> getByUser(Long userId) {
-        UserDto userDto = userService.getById(userId);
+        userService.checkExists(userId);
 
         List<ItemRequest> requestsByUser = repository.findAllByRequesterIdOrderByCreatedDesc(userId);
         List<ItemRequestForDto> requestGetDto = mapper.toListGetDto(requestsByUser);
 
+        Map<Long, List<RequestedItemDto>> items = itemService.getAllByRequestIds(
+                requestGetDto.stream().map(ItemRequestForDto::getId).collect(Collectors.toList()));
         for (ItemRequestForDto dto : requestGetDto) {
-            dto.setItems(itemService.getAllByRequestId(dto.getId()));
+            dto.setItems(items.getOrDefault(dto.getId(), new ArrayList<>()));
         }
 
         return requestGetDto;
@@ -59,26 +75,61 @@ public class RequestServiceImpl implements RequestService {
         if (from < 0 || size < 0) {
             throw new ValidationException("Параметры пагинации не могут быть отрицательными.");
         }
-        int page = (int) (from / size);
-        Pageable pageable = PageRequest.of(page, size.intValue());
-        Page<ItemRequest> requests = repository.getAllRequests(userId, pageable);
-        List<ItemRequestDto> res = mapper.toListDto(requests.getContent());
+        long offset = from / size * size;
+        FeedPage page = feed.page(userId, null, offset, size.intValue());
+        List<ItemRequestDto> res;
+        if (page.isComplete()) {
+            res = page.getRequests();
+        } else if (offset == 0) {
+            res = continueFromDatabase(page, size.intValue(), userId);
+        } else {
+            Pageable pageable = PageRequest.of((int) (from / size), size.intValue());
+            res = mapper.toListDto(repository.getAllRequests(userId, pageable).getContent());
+        }
+
+        return withItems(res);
+    }
 
-        for (ItemRequestDto request : res) {
-            request.setItems(itemService.getAllByRequestId(request.getId()));
+    @Override
+    public List<ItemRequestDto> getAllAfter(String after, Long size, Long userId) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным.");
         }
+        RequestCursor cursor = after == null || after.isEmpty() ? null : RequestCursor.decode(after);
+        FeedPage page = feed.page(userId, cursor, 0, size.intValue());
+        List<ItemRequestDto> res = page.isComplete() ? page.getRequests() : continueFromDatabase(page, size.intValue(), userId);
 
+        return withItems(res);
+    }
+
+    private List<ItemRequestDto> continueFromDatabase(FeedPage page, int size, Long userId) {
+        List<ItemRequestDto> res = new ArrayList<>(page.getRequests());
+        Pageable pageable = PageRequest.of(0, size - res.size());
+        RequestCursor resumeAfter = page.getResumeAfter();
+        Slice<ItemRequest> older = resumeAfter == null
+                ? repository.getAllRequests(userId, pageable)
+                : repository.getAllRequestsAfter(userId, resumeAfter.getCreated(), resumeAfter.getId(), pageable);
+        res.addAll(mapper.toListDto(older.getContent()));
         return res;
     }
 
+    private List<ItemRequestDto> withItems(List<ItemRequestDto> requests) {
+        Map<Long, List<RequestedItemDto>> items = itemService.getAllByRequestIds(
+                requests.stream().map(ItemRequestDto::getId).collect(Collectors.toList()));
+        for (ItemRequestDto request : requests) {
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
+        }
+        return requests;
+    }
+
     @Override
     public ItemRequestForDto getById(Long requestId, Long userId) {
-        UserDto userDto = userService.getById(userId);
+        userService.checkExists(userId);
         ItemRequest request = repository.findById(requestId)
                 .orElseThrow(() -> new NoSuchElementException("Запроса с таким ID не существует"));
 
         ItemRequestForDto res = mapper.toGetDto(request);
-        res.setItems(itemService.getAllByRequestId(res.getId()));
+        res.setItems(itemService.getAllByRequestIds(List.of(res.getId())).getOrDefault(res.getId(), new ArrayList<>()));
 
         return res;
     }
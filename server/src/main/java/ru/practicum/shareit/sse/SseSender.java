@@ -0,0 +1,201 @@
+package ru.practicum.shareit.sse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Writes server-sent events from a pool of {@code threads} sender threads, so that the thread publishing an
+ * event never waits for a client. Every stream has a queue of {@code buffer} events, drained by one sender thread
+ * at a time; a stream whose client does not keep up is closed when its queue is full.
+ * <p>
+ * A stream is also closed when one send blocks for longer than {@code sendTimeout}, as it does on a client that
+ * stopped reading. The blocked thread cannot be taken back until the container's own write timeout ends the
+ * write, so the pool gets a thread more for each such send and gives it up when the send returns; the other
+ * streams keep their {@code threads}.
+ */
+@Slf4j
+public class SseSender {
+    private final String name;
+    private final int threads;
+    private final int bufferSize;
+    private final long sendTimeoutMillis;
+    private final ThreadPoolExecutor sender;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private int stalled;
+
+    public SseSender(String name, int threads, int bufferSize, Duration sendTimeout) {
+        if (threads <= 0 || bufferSize <= 0 || sendTimeout.isNegative() || sendTimeout.isZero()) {
+            throw new IllegalArgumentException("Sender threads, buffer size and send timeout must be positive: "
+                    + threads + " threads, " + bufferSize + " events, " + sendTimeout);
+        }
+        this.name = name;
+        this.threads = threads;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.sender = (ThreadPoolExecutor) Executors.newFixedThreadPool(threads, threadFactory(name + "-"));
+        this.watchdog = new ScheduledThreadPoolExecutor(1, threadFactory(name + "-watchdog-"));
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts sending to {@code emitter}. {@code onClose} runs once when the stream closes, whether the client went
+     * away, the emitter timed out, a send failed, the queue overflowed or the stream was {@link Stream#close closed}.
+     */
+    public Stream open(SseEmitter emitter, Consumer<Stream> onClose) {
+        return new Stream(emitter, onClose);
+    }
+
+    public void shutdown() {
+        watchdog.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    private synchronized void stalledSendStarted() {
+        stalled++;
+        sender.setMaximumPoolSize(threads + stalled);
+        sender.setCorePoolSize(threads + stalled);
+    }
+
+    private synchronized void stalledSendEnded() {
+        stalled--;
+        sender.setCorePoolSize(threads + stalled);
+        sender.setMaximumPoolSize(threads + stalled);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public final class Stream {
+        private final SseEmitter emitter;
+        private final Consumer<Stream> onClose;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Stream(SseEmitter emitter, Consumer<Stream> onClose) {
+            this.emitter = emitter;
+            this.onClose = onClose;
+            emitter.onCompletion(this::detach);
+            emitter.onTimeout(this::detach);
+            emitter.onError(e -> detach());
+        }
+
+        /**
+         * Queues {@code event}, and returns whether it was queued. A stream whose queue is full is closed.
+         */
+        public boolean offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return false;
+            }
+            if (!queue.offer(event)) {
+                log.debug("Closing {} stream that fell {} events behind", name, bufferSize);
+                close();
+                return false;
+            }
+            scheduleDrain();
+            return true;
+        }
+
+        /**
+         * Closes the stream, dropping the events not yet sent. The emitter is completed on a sender thread once
+         * a send in progress returns.
+         */
+        public void close() {
+            detach();
+            queue.clear();
+            scheduleDrain();
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        private void detach() {
+            if (closed.compareAndSet(false, true)) {
+                onClose.accept(this);
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        /**
+         * Sends the queued events. Only one drain of a stream runs at a time; the last one of a closed stream
+         * completes the emitter and keeps {@link #draining} set, so that none follows it.
+         */
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    if (!send(event)) {
+                        detach();
+                    }
+                }
+                if (closed.get()) {
+                    queue.clear();
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+            } while ((closed.get() || !queue.isEmpty()) && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Sends {@code event}. Whichever of this send and its watchdog settles it first decides whether it
+         * stalled; a stalled send closes the stream and holds a thread of its own until it returns.
+         */
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            AtomicBoolean settled = new AtomicBoolean();
+            ScheduledFuture<?> watch;
+            try {
+                watch = watchdog.schedule(() -> {
+                    if (settled.compareAndSet(false, true)) {
+                        log.debug("Closing {} stream whose send has blocked for {} ms", name, sendTimeoutMillis);
+                        stalledSendStarted();
+                        detach();
+                        queue.clear();
+                    }
+                }, sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // the sender is shutting down
+                return false;
+            }
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping {} stream: {}", name, e.getMessage());
+                return false;
+            } finally {
+                watch.cancel(false);
+                if (!settled.compareAndSet(false, true)) {
+                    stalledSendEnded();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by the user service when a user is updated or removed; listeners see the committed state.
+ * Removing a user also removes, by cascade, the user's items with their bookings and comments, and the user's
+ * own requests, bookings and comments. {@code itemIds} lists the items removed that way, and {@code bookings}
+ * maps the ids of the bookings the user made to their items.
+ */
+@Value
+public class UserChangedEvent {
+    Long userId;
+
+    boolean removed;
+
+    List<Long> itemIds;
+
+    Map<Long, Long> bookings;
+
+    public static UserChangedEvent updated(Long userId) {
+        return new UserChangedEvent(userId, false, List.of(), Map.of());
+    }
+
+    public static UserChangedEvent removed(Long userId, List<Long> itemIds, Map<Long, Long> bookings) {
+        return new UserChangedEvent(userId, true, itemIds, bookings);
+    }
+}
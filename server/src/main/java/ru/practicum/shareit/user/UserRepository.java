@@ -1,6 +1,20 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.index.BookingInterval;
+
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    @Query("SELECT it.id FROM Item it WHERE it.owner.id = :userId")
+    List<Long> findOwnedItemIds(@Param("userId") Long userId);
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end " +
+            "FROM Booking b WHERE b.booker.id = :userId")
+    List<BookingInterval> findBookingIntervals(@Param("userId") Long userId);
 }
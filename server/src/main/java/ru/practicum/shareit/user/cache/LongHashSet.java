@@ -0,0 +1,97 @@
+package ru.practicum.shareit.user.cache;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of positive {@code long}s with linear probing: eight bytes per slot and no boxing.
+ * Removal shifts the rest of the probe run back instead of leaving tombstones. Not thread-safe.
+ */
+final class LongHashSet {
+    private static final long EMPTY = 0;
+    private static final double MAX_LOAD = 0.5;
+
+    private long[] slots;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long value) {
+        int mask = slots.length - 1;
+        for (int i = index(value, mask); slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean add(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Only positive values are supported: " + value);
+        }
+        if (size + 1 > slots.length * MAX_LOAD) {
+            resize(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != EMPTY) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        return true;
+    }
+
+    boolean remove(long value) {
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != value) {
+            if (slots[i] == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = EMPTY;
+        size--;
+        int hole = i;
+        for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+            int home = index(slots[j], mask);
+            boolean movable = hole <= j ? home <= hole || home > j : home <= hole && home > j;
+            if (movable) {
+                slots[hole] = slots[j];
+                slots[j] = EMPTY;
+                hole = j;
+            }
+        }
+        return true;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        size = 0;
+        Arrays.stream(old).filter(value -> value != EMPTY).forEach(this::add);
+    }
+
+    private static int index(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * MAX_LOAD < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
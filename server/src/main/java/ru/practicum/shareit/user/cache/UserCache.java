@@ -0,0 +1,134 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Ids of all existing users, for the existence check behind the {@code X-Sharer-User-Id} header, and a bounded
+ * cache of their DTOs for the calls that need a name or email. Loaded on startup and changed by the user service
+ * after its transaction commits, so readers never see a user that was rolled back. Cached DTOs are shared and
+ * must not be modified. Statistics are published as the {@code cache.*} meters with tag {@code cache=user}.
+ */
+@Slf4j
+@Component
+public class UserCache {
+    private final UserRepository repository;
+    private final LongHashSet knownIds = new LongHashSet(1024);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Cache<Long, UserDto> users;
+
+    public UserCache(UserRepository repository, MeterRegistry meterRegistry,
+                     @Value("${shareit.cache.users.maximum-size:10000}") long maximumSize) {
+        this.repository = repository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "user");
+    }
+
+    @PostConstruct
+    public void load() {
+        List<Long> ids = repository.findAllIds();
+        lock.writeLock().lock();
+        try {
+            ids.forEach(knownIds::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("User cache loaded: {} user ids", ids.size());
+    }
+
+    public boolean isKnown(Long id) {
+        if (id == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return knownIds.contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a user found in the database by other means. Inside a transaction the user may not be committed
+     * yet, so it is only recorded outside of one.
+     */
+    public void remember(Long id) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            addKnown(id);
+        }
+    }
+
+    /**
+     * Cached DTO of the user, loaded with {@code loader} on a miss. Inside a transaction a miss is not cached.
+     */
+    public UserDto get(Long id, Function<Long, UserDto> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            UserDto cached = users.getIfPresent(id);
+            return cached != null ? cached : loader.apply(id);
+        }
+        return users.get(id, loader);
+    }
+
+    public void added(UserDto user) {
+        afterCommit(() -> {
+            addKnown(user.getId());
+            users.put(user.getId(), user);
+        });
+    }
+
+    public void updated(UserDto user) {
+        afterCommit(() -> users.put(user.getId(), user));
+    }
+
+    public void removed(Long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                knownIds.remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            users.invalidate(id);
+        });
+    }
+
+    private void addKnown(Long id) {
+        lock.writeLock().lock();
+        try {
+            knownIds.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
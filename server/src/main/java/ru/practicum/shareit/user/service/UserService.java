@@ -15,4 +15,6 @@ public interface UserService {
     List<UserDto> getAll();
 
     UserDto getById(Long id);
+
+    void checkExists(Long id);
 }
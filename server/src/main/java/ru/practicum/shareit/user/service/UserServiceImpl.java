@@ -1,27 +1,37 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.index.BookingInterval;
+import ru.practicum.shareit.user.UserChangedEvent;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoForUpdate;
 import ru.practicum.shareit.user.User;
 
 import javax.transaction.Transactional;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
+    private final UserCache cache;
+    private final ApplicationEventPublisher eventPublisher;
     private final UserMapper mapper = UserMapper.INSTANCE;
 
     @Transactional
     @Override
     public UserDto add(UserDto user) {
-        return mapper.toDto(repository.save(mapper.userDtoToUser(user)));
+        UserDto saved = mapper.toDto(repository.save(mapper.userDtoToUser(user)));
+        cache.added(saved);
+        return saved;
     }
 
     @Transactional
@@ -39,13 +49,21 @@ public class UserServiceImpl implements UserService {
             existingUser.setEmail(user.getEmail());
         }
 
-        return mapper.toDto(repository.save(existingUser));
+        UserDto saved = mapper.toDto(repository.save(existingUser));
+        cache.updated(saved);
+        eventPublisher.publishEvent(UserChangedEvent.updated(userId));
+        return saved;
     }
 
     @Transactional
     @Override
     public void remove(Long id) {
+        List<Long> itemIds = repository.findOwnedItemIds(id);
+        Map<Long, Long> bookings = repository.findBookingIntervals(id).stream()
+                .collect(Collectors.toMap(BookingInterval::getId, BookingInterval::getItemId));
         repository.deleteById(id);
+        cache.removed(id);
+        eventPublisher.publishEvent(UserChangedEvent.removed(id, itemIds, bookings));
     }
 
     @Override
@@ -54,8 +72,29 @@ public class UserServiceImpl implements UserService {
     }
 
 
+    /**
+     * Served from {@link UserCache}; the returned DTO is shared and must not be modified.
+     */
     @Override
     public UserDto getById(Long id) {
+        return cache.get(id, this::load);
+    }
+
+    /**
+     * Checks the in-memory set of user ids and only asks the database about ids missing from it.
+     */
+    @Override
+    public void checkExists(Long id) {
+        if (cache.isKnown(id)) {
+            return;
+        }
+        if (id == null || !repository.existsById(id)) {
+            throw new NoSuchElementException("Юзера с таким ID не существует");
+        }
+        cache.remember(id);
+    }
+
+    private UserDto load(Long id) {
         User user = repository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Юзера с таким ID не существует"));
 
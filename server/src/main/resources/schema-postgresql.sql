@@ -0,0 +1,7 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_item_start ON bookings (item_id, start_date DESC) WHERE status = 'WAITING';
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector TSVECTOR GENERATED ALWAYS AS (
+  setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+  setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING GIN (search_vector);
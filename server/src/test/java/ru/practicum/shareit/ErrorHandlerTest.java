@@ -3,10 +3,12 @@ package ru.practicum.shareit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.BookingConflictException;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.ValidationException;
 import java.nio.file.AccessDeniedException;
+import java.time.LocalDateTime;
 import java.util.NoSuchElementException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -70,4 +72,14 @@ public class ErrorHandlerTest {
 
         assertEquals("Illegal state", response.get("error"));
     }
+
+    @Test
+    public void testHandleBookingConflict() {
+        LocalDateTime nextFreeSlot = LocalDateTime.of(2030, 1, 1, 12, 0);
+        BookingConflictException exception = new BookingConflictException("Conflict", nextFreeSlot);
+        var response = errorHandler.handleBookingConflict(exception);
+
+        assertEquals("Conflict", response.get("error"));
+        assertEquals(nextFreeSlot.toString(), response.get("nextFreeSlot"));
+    }
 }
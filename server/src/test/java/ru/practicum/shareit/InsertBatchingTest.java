@@ -0,0 +1,101 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that inserts of sequence-keyed entities go to the database in JDBC batches. The benchmark compares
+ * bulk item and booking loads with batching turned off for the session, which is how every insert was sent
+ * while ids came from identity columns; run it with {@code -Dshareit.benchmark=true}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class InsertBatchingTest {
+    private static final int BENCHMARK_ROWS = 5_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    public void setUp() {
+        owner = User.builder().name("Owner").email("owner@example.com").build();
+        booker = User.builder().name("Booker").email("booker@example.com").build();
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        entityManager.flush();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testItemsAndBookingsAreInsertedInBatches() {
+        load(40);
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(80);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+    public void benchmarkBulkInsert() {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+        long unbatched = load(BENCHMARK_ROWS);
+        entityManager.unwrap(Session.class).setJdbcBatchSize(null);
+        long batched = load(BENCHMARK_ROWS);
+
+        System.out.printf("Bulk insert of %d items and %d bookings: %d rows/s one by one, %d rows/s batched%n",
+                BENCHMARK_ROWS, BENCHMARK_ROWS, rowsPerSecond(unbatched), rowsPerSecond(batched));
+    }
+
+    /**
+     * Inserts {@code count} items with one booking each and returns the time it took in nanoseconds.
+     */
+    private long load(int count) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long began = System.nanoTime();
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Item item = Item.builder().name("Item " + i).description("Bulk item").owner(owner).available(true).build();
+            entityManager.persist(item);
+            items.add(item);
+        }
+        for (Item item : items) {
+            entityManager.persist(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(start)
+                    .end(start.plusDays(1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return System.nanoTime() - began;
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return 2L * BENCHMARK_ROWS * 1_000_000_000L / nanos;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the server on the PostgreSQL schema scripts and checks that their indexes exist afterwards. Needs an
+ * empty database, whose tables it drops; run it with {@code -Dshareit.postgres.url=jdbc:postgresql://host/db}
+ * and, if needed, {@code -Dshareit.postgres.username} and {@code -Dshareit.postgres.password}.
+ */
+@SpringBootTest(properties = {
+        "spring.sql.init.platform=postgresql",
+        "shareit.search.backend=postgres",
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${shareit.postgres.url}",
+        "spring.datasource.username=${shareit.postgres.username:shareit}",
+        "spring.datasource.password=${shareit.postgres.password:}"})
+@EnabledIfSystemProperty(named = "shareit.postgres.url", matches = ".+")
+public class PostgresSchemaTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testPlatformIndexesSurviveSchemaScript() {
+        List<String> definitions = jdbcTemplate.queryForList(
+                "SELECT indexdef FROM pg_indexes WHERE indexname = 'idx_bookings_waiting_item_start'", String.class);
+
+        assertThat(definitions).singleElement().asString()
+                .contains("(item_id, start_date DESC)")
+                .contains("WHERE ((status)::text = 'WAITING'::text)");
+    }
+
+    @Test
+    public void testSchemaIndexesExist() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class);
+
+        assertThat(indexes).contains("idx_requests_requestor_created", "idx_requests_created", "idx_items_owner",
+                "idx_items_request", "idx_bookings_booker_start", "idx_bookings_item_start", "idx_bookings_status_end",
+                "idx_comments_item");
+    }
+}
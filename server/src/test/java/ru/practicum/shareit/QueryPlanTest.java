@@ -0,0 +1,168 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingQuery;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.comment.Comment;
+import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.user.User;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs H2 {@code EXPLAIN} on the SQL that Hibernate generates for the hot repository queries
+ * and fails if any table in a plan is read with a full table scan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$SqlCapture")
+@ActiveProfiles("test")
+public class QueryPlanTest {
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 20; i++) {
+            User owner = entityManager.persist(User.builder().name("User " + i).email("user" + i + "@example.com").build());
+            ItemRequest request = new ItemRequest();
+            request.setDescription("Request " + i);
+            request.setRequester(owner);
+            request.setCreated(now.minusHours(i));
+            entityManager.persist(request);
+            Item saved = entityManager.persist(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build());
+            entityManager.persist(Booking.builder()
+                    .item(saved)
+                    .booker(owner)
+                    .start(now.minusDays(i))
+                    .end(now.plusDays(i))
+                    .status(BookingStatus.WAITING)
+                    .build());
+            Comment comment = new Comment();
+            comment.setText("Comment " + i);
+            comment.setItem(saved);
+            comment.setAuthor(owner);
+            comment.setCreated(now);
+            entityManager.persist(comment);
+            user = owner;
+            item = saved;
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    public void testBookingQueriesUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.findByQuery(BookingQuery.of(BookingRole.BOOKER, user.getId(), BookingState.ALL, now), null, 0, 10);
+        bookingRepository.findByQuery(BookingQuery.of(BookingRole.OWNER, user.getId(), BookingState.WAITING, now), null, 0, 10);
+        bookingRepository.findById(1L);
+        bookingRepository.findAllByItem_idAndStartIsAfterOrderByStartAsc(item.getId(), now);
+        bookingRepository.findAllByItem_IdAndStartIsBeforeOrderByStartDesc(item.getId(), now);
+        bookingRepository.existsByItem_IdAndBooker_IdAndEndIsBeforeAndStatus(item.getId(), user.getId(), now,
+                BookingStatus.APPROVED);
+        bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId()), now);
+        bookingRepository.findIntervalsByStatusInAndEndAfter(BookingIntervalIndex.ACTIVE_STATUSES, now);
+
+        assertNoTableScans();
+    }
+
+    @Test
+    public void testItemCommentAndRequestQueriesUseIndexes() {
+        itemRepository.findAllByOwnerIdOrderByIdAsc(user.getId(), PageRequest.of(0, 10));
+        itemRepository.findAllByRequestIdIn(List.of(1L, 2L));
+        commentRepository.findAllByItem_Id(item.getId());
+        commentRepository.findAllByItem_IdIn(List.of(item.getId()));
+        requestRepository.findAllByRequesterIdOrderByCreatedDesc(user.getId());
+        requestRepository.getAllRequestsAfter(user.getId(), LocalDateTime.now(), 10L, PageRequest.of(0, 10));
+        requestRepository.findRecent(PageRequest.of(0, 10));
+
+        assertNoTableScans();
+    }
+
+    private void assertNoTableScans() {
+        List<String> statements = new ArrayList<>(SqlCapture.STATEMENTS);
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(plan).as("Plan of %s", sql).doesNotContain(TABLE_SCAN);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        });
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -10,10 +10,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.Constants;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoForAnswer;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.OwnerBookingStream;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -21,6 +24,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,6 +37,9 @@ public class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private OwnerBookingStream ownerBookingStream;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -80,6 +87,32 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value(bookingDtoForAnswer.getStatus().toString()));
     }
 
+    @Test
+    void testDecideAll() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+        Mockito.when(bookingService.decideAll(anyList(), anyLong())).thenReturn(List.of(
+                new BookingDecisionResultDto(1L, BookingStatus.APPROVED, null),
+                new BookingDecisionResultDto(2L, null, "Бронь уже рассмотрена!")));
+
+        mockMvc.perform(patch(Constants.BOOKINGS_PATH + Constants.BATCH)
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].error").value("Бронь уже рассмотрена!"));
+    }
+
+    @Test
+    void testDecideAllRejectsEmptyBatch() throws Exception {
+        mockMvc.perform(patch(Constants.BOOKINGS_PATH + Constants.BATCH)
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(bookingService);
+    }
+
     @Test
     void testGetById() throws Exception {
         Mockito.when(bookingService.getById(anyLong(), anyLong())).thenReturn(bookingDtoForAnswer);
@@ -106,6 +139,21 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].status").value(bookingDtoForAnswer.getStatus().toString()));
     }
 
+    @Test
+    void testGetByUserReturnsNextCursorForFullPage() throws Exception {
+        List<BookingDtoForAnswer> bookings = Collections.singletonList(bookingDtoForAnswer);
+        Mockito.when(bookingService.getByUserAfter(anyString(), anyLong(), anyString(), anyLong())).thenReturn(bookings);
+        String cursor = new BookingCursor(LocalDateTime.of(2030, 1, 1, 0, 0), 5L).encode();
+
+        mockMvc.perform(get(Constants.BOOKINGS_PATH)
+                        .param("size", "1")
+                        .param("after", cursor)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, BookingCursor.of(bookingDtoForAnswer).encode()))
+                .andExpect(jsonPath("$[0].id").value(bookingDtoForAnswer.getId()));
+    }
+
     @Test
     void testGetByOwner() throws Exception {
         List<BookingDtoForAnswer> bookings = Collections.singletonList(bookingDtoForAnswer);
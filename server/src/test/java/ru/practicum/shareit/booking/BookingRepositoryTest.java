@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingDtoForAnswer;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class BookingRepositoryTest {
+    private static final int BOOKINGS = 30;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final BookingMapper mapper = BookingMapper.INSTANCE;
+
+    private User owner;
+    private User booker;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        owner = entityManager.persist(User.builder().name("Owner").email("owner@example.com").build());
+        booker = entityManager.persist(User.builder().name("Booker").email("booker@example.com").build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < BOOKINGS; i++) {
+            User itemOwner = entityManager.persist(User.builder().name("Owner " + i).email("owner" + i + "@example.com").build());
+            Item item = entityManager.persist(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .available(true)
+                    .owner(i % 2 == 0 ? owner : itemOwner)
+                    .build());
+            User itemBooker = i % 3 == 0 ? booker : entityManager.persist(User.builder()
+                    .name("Booker " + i)
+                    .email("booker" + i + "@example.com")
+                    .build());
+            entityManager.persist(Booking.builder()
+                    .item(item)
+                    .booker(itemBooker)
+                    .start(now.minusDays(i))
+                    .end(now.plusDays(1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testOwnerPageIsLoadedWithSingleStatement() {
+        List<Booking> bookings = bookingRepository.findByQuery(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), BookingState.ALL, LocalDateTime.now()), null, 0, 100)
+                .getContent();
+        List<BookingDtoForAnswer> result = mapper.toListAnswerDto(bookings);
+
+        assertThat(result).hasSize(BOOKINGS / 2);
+        assertThat(result).allSatisfy(booking -> assertThat(booking.getBooker().getName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBookerPageIsLoadedWithSingleStatement() {
+        List<Booking> bookings = bookingRepository.findByQuery(
+                BookingQuery.of(BookingRole.BOOKER, booker.getId(), BookingState.CURRENT, LocalDateTime.now()), null, 0, 100)
+                .getContent();
+        List<BookingDtoForAnswer> result = mapper.toListAnswerDto(bookings);
+
+        assertThat(result).hasSize(BOOKINGS / 3);
+        assertThat(result).allSatisfy(booking -> assertThat(booking.getItem().getOwner().getEmail()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testKeysetPageIsLoadedWithSingleStatement() {
+        Booking newest = bookingRepository.findByQuery(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), BookingState.ALL, LocalDateTime.now()), null, 0, 1)
+                .getContent().get(0);
+        entityManager.clear();
+        statistics.clear();
+
+        List<Booking> bookings = bookingRepository.findByQuery(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), BookingState.ALL, LocalDateTime.now()),
+                new BookingCursor(newest.getStart(), newest.getId()), 0, 10).getContent();
+        List<BookingDtoForAnswer> result = mapper.toListAnswerDto(bookings);
+
+        assertThat(result).hasSize(10);
+        assertThat(result).allSatisfy(booking -> assertThat(booking.getItem().getOwner().getName()).isEqualTo("Owner"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testQueryCombinesItemStatusAndDateFilters() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking target = bookingRepository.findByQuery(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), BookingState.ALL, now), null, 0, 100)
+                .getContent().get(3);
+        target.setStatus(BookingStatus.APPROVED);
+        entityManager.flush();
+
+        BookingQuery query = BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(owner.getId())
+                .itemId(target.getItem().getId())
+                .status(BookingStatus.APPROVED)
+                .startAfter(target.getStart().minusHours(1))
+                .endAfter(now)
+                .order(BookingQuery.Order.START_ASC)
+                .build();
+
+        assertThat(bookingRepository.findByQuery(query, null, 0, 10).getContent())
+                .extracting(Booking::getId).containsExactly(target.getId());
+
+        BookingQuery waiting = BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(owner.getId())
+                .itemId(target.getItem().getId())
+                .status(BookingStatus.WAITING)
+                .build();
+
+        assertThat(bookingRepository.findByQuery(waiting, null, 0, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    public void testFindByIdLoadsItemOwnerAndBooker() {
+        Long id = bookingRepository.findByQuery(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), BookingState.ALL, LocalDateTime.now()), null, 0, 1)
+                .getContent().get(0).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        BookingDtoForAnswer result = mapper.toAnswerDto(bookingRepository.findById(id).orElseThrow());
+
+        assertThat(result.getItem().getOwner().getId()).isEqualTo(owner.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDecideAllWaitingUpdatesOnlyBookingsOfOwner() {
+        List<Booking> bookings = bookingRepository.findByQuery(
+                BookingQuery.of(BookingRole.BOOKER, booker.getId(), BookingState.ALL, LocalDateTime.now()), null, 0, 10)
+                .getContent();
+        Booking own = bookings.stream().filter(b -> b.getItem().getOwner().getId().equals(owner.getId()))
+                .findFirst().orElseThrow();
+        Booking foreign = bookings.stream().filter(b -> !b.getItem().getOwner().getId().equals(owner.getId()))
+                .findFirst().orElseThrow();
+
+        Set<Long> decided = bookingRepository.decideAllWaiting(
+                Map.of(own.getId(), BookingStatus.APPROVED, foreign.getId(), BookingStatus.APPROVED), owner.getId());
+
+        assertThat(decided).containsExactly(own.getId());
+        assertThat(entityManager.getEntityManager().contains(own)).isFalse();
+        assertThat(bookingRepository.findById(own.getId()).orElseThrow().getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingRepository.findById(foreign.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+    }
+}
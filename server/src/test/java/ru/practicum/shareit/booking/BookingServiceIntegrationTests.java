@@ -1,11 +1,16 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoForAnswer;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
@@ -14,9 +19,11 @@ import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.User;
 
+import javax.persistence.EntityManager;
 import javax.validation.ValidationException;
 import java.nio.file.AccessDeniedException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -24,7 +31,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Transactional
 public class BookingServiceIntegrationTests {
 
@@ -40,6 +47,9 @@ public class BookingServiceIntegrationTests {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User owner;
     private User booker;
     private Item item;
@@ -78,6 +88,51 @@ public class BookingServiceIntegrationTests {
         booking = bookingRepository.save(booking);
     }
 
+    @Test
+    public void testAddTakesOneReadAndOneInsert() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(20);
+        BookingDto bookingDto = BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BookingDtoForAnswer result = bookingService.add(bookingDto, booker.getId());
+        entityManager.flush();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(result.getItem().getName()).isEqualTo("Test Item");
+        assertThat(result.getItem().getOwner().getEmail()).isEqualTo("owner@example.com");
+        assertThat(result.getBooker().getName()).isEqualTo("Booker");
+        assertThat(bookingRepository.findById(result.getId()).orElseThrow().getItem().getId()).isEqualTo(item.getId());
+    }
+
+    @Test
+    public void testAddOverlappingBookingThrowsConflict() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        BookingDto first = BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(2))
+                .build();
+        BookingDto overlapping = BookingDto.builder()
+                .itemId(item.getId())
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .build();
+
+        bookingService.add(first, booker.getId());
+
+        assertThatThrownBy(() -> bookingService.add(overlapping, booker.getId()))
+                .isInstanceOf(BookingConflictException.class)
+                .extracting("nextFreeSlot")
+                .isEqualTo(start.plusDays(2));
+    }
+
     @Test
     public void testApproveBooking() throws Exception {
         Long bookingId = booking.getId();
@@ -122,6 +177,60 @@ public class BookingServiceIntegrationTests {
         });
     }
 
+    @Test
+    public void testDecisionIsOneUpdateAndCannotBeOverturned() throws Exception {
+        Long bookingId = booking.getId();
+        Long ownerId = owner.getId();
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingService.approve(bookingId, false, ownerId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThatThrownBy(() -> bookingService.approve(bookingId, true, ownerId))
+                .isInstanceOf(ValidationException.class);
+        assertThat(bookingRepository.findById(bookingId).orElseThrow().getStatus()).isEqualTo(BookingStatus.REJECTED);
+    }
+
+    @Test
+    public void testDecideAllAppliesValidDecisionsOfMixedBatch() {
+        Booking overlapping = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(booking.getStart().plusHours(12))
+                .end(booking.getEnd().plusHours(12))
+                .status(BookingStatus.WAITING)
+                .build());
+        Booking later = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(booking.getStart().plusDays(10))
+                .end(booking.getEnd().plusDays(10))
+                .status(BookingStatus.WAITING)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(
+                new BookingDecisionDto(booking.getId(), true),
+                new BookingDecisionDto(overlapping.getId(), true),
+                new BookingDecisionDto(999L, true),
+                new BookingDecisionDto(later.getId(), false)), owner.getId());
+
+        assertThat(results).extracting(BookingDecisionResultDto::getStatus)
+                .containsExactly(BookingStatus.APPROVED, null, null, BookingStatus.REJECTED);
+        assertThat(results.get(1).getError()).isEqualTo("Предмет уже забронирован на это время");
+        assertThat(results.get(2).getError()).isEqualTo("Брони с таким ID не существует");
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingRepository.findById(overlapping.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+        assertThat(bookingRepository.findById(later.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.REJECTED);
+    }
+
     @Test
     public void testApproveNonExistentBookingThrowsException() {
         Long nonExistentBookingId = 999L;
@@ -296,6 +405,48 @@ public class BookingServiceIntegrationTests {
                 .hasMessageContaining("Параметры пагинации не могут быть отрицательными.");
     }
 
+    @Test
+    public void testGetByUserAfterWalksAllPagesInOrder() {
+        LocalDateTime start = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.SECONDS);
+        Booking second = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .build());
+        Booking third = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+
+        List<BookingDtoForAnswer> firstPage = bookingService.getByUserAfter(null, 2L, "ALL", booker.getId());
+        String cursor = BookingCursor.of(firstPage.get(1)).encode();
+        List<BookingDtoForAnswer> secondPage = bookingService.getByUserAfter(cursor, 2L, "ALL", booker.getId());
+
+        assertThat(firstPage).extracting(BookingDtoForAnswer::getId).containsExactly(third.getId(), second.getId());
+        assertThat(secondPage).extracting(BookingDtoForAnswer::getId).containsExactly(booking.getId());
+    }
+
+    @Test
+    public void testGetByOwnerAfterFiltersByState() {
+        booking.setStatus(BookingStatus.REJECTED);
+        bookingRepository.save(booking);
+
+        assertThat(bookingService.getByOwnerAfter(null, 10L, "REJECTED", owner.getId()))
+                .extracting(BookingDtoForAnswer::getId).containsExactly(booking.getId());
+        assertThat(bookingService.getByOwnerAfter(null, 10L, "WAITING", owner.getId())).isEmpty();
+    }
+
+    @Test
+    public void testGetByUserAfterThrowsExceptionForBrokenCursor() {
+        assertThatThrownBy(() -> bookingService.getByUserAfter("not-a-cursor", 10L, "ALL", booker.getId()))
+                .isInstanceOf(ValidationException.class);
+    }
+
     @Test
     public void testGetByUserThrowsExceptionForUnknownState() {
         Long userId = booker.getId();
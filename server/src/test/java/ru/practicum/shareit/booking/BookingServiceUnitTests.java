@@ -5,18 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoForAnswer;
 import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.Item;
-import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.service.UserService;
@@ -26,13 +29,18 @@ import java.nio.file.AccessDeniedException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 public class BookingServiceUnitTests {
@@ -43,7 +51,16 @@ public class BookingServiceUnitTests {
     private UserService userService;
 
     @Mock
-    private ItemService itemService;
+    private UserRepository userRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -73,11 +90,8 @@ public class BookingServiceUnitTests {
         bookingDto.setStart(LocalDateTime.now().plusDays(1));
         bookingDto.setEnd(LocalDateTime.now().plusDays(2));
 
-        User user = userMapper.userDtoToUser(userDto);
-        Item item = itemMapper.toItemFromDtoWithBookings(itemDto);
-
-        when(userService.getById(userId)).thenReturn(userDto);
-        when(itemService.getById(itemId, userId)).thenReturn(itemDto);
+        BookingAdmission admission = admission(itemDto, userDto);
+        when(bookingRepository.findAdmission(itemId, userId)).thenReturn(Optional.of(admission));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
             Booking booking = invocation.getArgument(0);
             booking.setId(1L);
@@ -89,6 +103,38 @@ public class BookingServiceUnitTests {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isNotNull();
         assertThat(result.getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(result.getItem().getOwner().getName()).isEqualTo("Owner");
+        assertThat(result.getBooker().getName()).isEqualTo("User");
+        verify(itemRepository).getReferenceById(itemId);
+        verify(userRepository).getReferenceById(userId);
+    }
+
+    @Test
+    public void testAddBookingItemNotFound() {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(2L);
+        when(bookingRepository.findAdmission(2L, 1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> bookingService.add(bookingDto, 1L))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("Предмета с таким ID не существует");
+        verify(userService).checkExists(1L);
+    }
+
+    @Test
+    public void testAddBookingBookerNotFound() {
+        ItemBookingDto itemDto = new ItemBookingDto();
+        itemDto.setId(2L);
+        itemDto.setAvailable(true);
+        itemDto.setOwner(new UserDto(2L, "Owner", "owner@example.com"));
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(2L);
+        BookingAdmission admission = admission(itemDto, null);
+        when(bookingRepository.findAdmission(2L, 1L)).thenReturn(Optional.of(admission));
+
+        assertThatThrownBy(() -> bookingService.add(bookingDto, 1L))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("Юзера с таким ID не существует");
     }
 
     @Test
@@ -107,8 +153,8 @@ public class BookingServiceUnitTests {
         bookingDto.setStart(LocalDateTime.now().plusDays(1));
         bookingDto.setEnd(LocalDateTime.now().plusDays(2));
 
-        when(userService.getById(userId)).thenReturn(userDto);
-        when(itemService.getById(itemId, userId)).thenReturn(itemDto);
+        BookingAdmission admission = admission(itemDto, userDto);
+        when(bookingRepository.findAdmission(itemId, userId)).thenReturn(Optional.of(admission));
 
         assertThrows(ValidationException.class, () -> bookingService.add(bookingDto, userId));
     }
@@ -128,8 +174,8 @@ public class BookingServiceUnitTests {
         bookingDto.setStart(LocalDateTime.now().plusDays(1));
         bookingDto.setEnd(LocalDateTime.now().plusDays(2));
 
-        when(userService.getById(userId)).thenReturn(userDto);
-        when(itemService.getById(itemId, userId)).thenReturn(itemDto);
+        BookingAdmission admission = admission(itemDto, userDto);
+        when(bookingRepository.findAdmission(itemId, userId)).thenReturn(Optional.of(admission));
 
         assertThrows(AccessDeniedException.class, () -> bookingService.add(bookingDto, userId));
     }
@@ -150,8 +196,8 @@ public class BookingServiceUnitTests {
         bookingDto.setStart(LocalDateTime.now().plusDays(2));
         bookingDto.setEnd(LocalDateTime.now().plusDays(1));
 
-        when(userService.getById(userId)).thenReturn(userDto);
-        when(itemService.getById(itemId, userId)).thenReturn(itemDto);
+        BookingAdmission admission = admission(itemDto, userDto);
+        when(bookingRepository.findAdmission(itemId, userId)).thenReturn(Optional.of(admission));
 
         assertThrows(ValidationException.class, () -> bookingService.add(bookingDto, userId));
     }
@@ -174,8 +220,8 @@ public class BookingServiceUnitTests {
         bookingDto.setStart(fixedTime);
         bookingDto.setEnd(fixedTime);
 
-        when(userService.getById(userId)).thenReturn(userDto);
-        when(itemService.getById(itemId, userId)).thenReturn(itemDto);
+        BookingAdmission admission = admission(itemDto, userDto);
+        when(bookingRepository.findAdmission(itemId, userId)).thenReturn(Optional.of(admission));
 
         assertThrows(ValidationException.class, () -> bookingService.add(bookingDto, userId));
     }
@@ -196,8 +242,8 @@ public class BookingServiceUnitTests {
         bookingDto.setStart(LocalDateTime.now().minusDays(1));
         bookingDto.setEnd(LocalDateTime.now().plusDays(1));
 
-        when(userService.getById(userId)).thenReturn(userDto);
-        when(itemService.getById(itemId, userId)).thenReturn(itemDto);
+        BookingAdmission admission = admission(itemDto, userDto);
+        when(bookingRepository.findAdmission(itemId, userId)).thenReturn(Optional.of(admission));
 
         assertThrows(ValidationException.class, () -> bookingService.add(bookingDto, userId));
     }
@@ -218,8 +264,8 @@ public class BookingServiceUnitTests {
         bookingDto.setStart(LocalDateTime.now().plusDays(1));
         bookingDto.setEnd(LocalDateTime.now().minusDays(1));
 
-        when(userService.getById(userId)).thenReturn(userDto);
-        when(itemService.getById(itemId, userId)).thenReturn(itemDto);
+        BookingAdmission admission = admission(itemDto, userDto);
+        when(bookingRepository.findAdmission(itemId, userId)).thenReturn(Optional.of(admission));
 
         assertThrows(ValidationException.class, () -> bookingService.add(bookingDto, userId));
     }
@@ -230,20 +276,44 @@ public class BookingServiceUnitTests {
         Long bookingId = 2L;
         Booking booking = new Booking();
         booking.setId(bookingId);
-        booking.setStatus(BookingStatus.WAITING);
+        booking.setStatus(BookingStatus.APPROVED);
         Item item = new Item();
         User owner = new User();
         owner.setId(userId);
         item.setOwner(owner);
         booking.setItem(item);
+        booking.setBooker(User.builder().id(3L).build());
 
+        when(bookingRepository.decideWaiting(bookingId, userId, BookingStatus.APPROVED)).thenReturn(1);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         BookingDtoForAnswer result = bookingService.approve(bookingId, true, userId);
 
         assertThat(result).isNotNull();
         assertThat(result.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    public void testApproveRejectedBookingThrowsValidationException() {
+        Long userId = 1L;
+        Long bookingId = 2L;
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setStatus(BookingStatus.REJECTED);
+        Item item = new Item();
+        User owner = new User();
+        owner.setId(userId);
+        item.setOwner(owner);
+        booking.setItem(item);
+
+        when(bookingRepository.decideWaiting(bookingId, userId, BookingStatus.APPROVED)).thenReturn(0);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+        assertThatThrownBy(() -> bookingService.approve(bookingId, true, userId))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Бронь уже рассмотрена!");
+        verifyNoInteractions(intervalIndex, eventPublisher);
     }
 
     @Test
@@ -310,20 +380,21 @@ public class BookingServiceUnitTests {
         String state = "ALL";
         int from = 0;
         int size = 10;
-        Pageable pageable = PageRequest.of(from / size, size);
         Booking booking = new Booking();
         booking.setId(1L);
 
         UserDto userDto = new UserDto(1L, "User", "user@example.com");
 
         when(userService.getById(userId)).thenReturn(userDto);
-        when(bookingRepository.findAllByBooker_IdOrderByStartDesc(eq(userId), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findByQuery(any(BookingQuery.class), isNull(), eq(0L), eq(size)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(booking)));
 
         List<BookingDtoForAnswer> result = bookingService.getByUser((long) from, (long) size, state, userId);
 
         assertThat(result).isNotEmpty();
-        verify(bookingRepository, times(1)).findAllByBooker_IdOrderByStartDesc(eq(userId), any(Pageable.class));
+        verify(bookingRepository, times(1)).findByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getUserId().equals(userId)
+                && query.getStatuses().isEmpty()), isNull(), eq(0L), eq(size));
     }
 
     @Test
@@ -351,20 +422,21 @@ public class BookingServiceUnitTests {
         Long ownerId = 1L;
         int from = 0;
         int size = 10;
-        Pageable pageable = PageRequest.of(from / size, size);
         Booking booking = new Booking();
         booking.setId(1L);
 
         UserDto ownerDto = new UserDto(1L, "Owner", "owner@example.com");
 
         when(userService.getById(ownerId)).thenReturn(ownerDto);
-        when(bookingRepository.findAllByItem_Owner_IdOrderByStartDesc(eq(ownerId), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findByQuery(any(BookingQuery.class), isNull(), eq(0L), eq(size)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(booking)));
 
         List<BookingDtoForAnswer> result = bookingService.getByOwner((long) from, (long) size, "ALL", ownerId);
 
         assertThat(result).isNotEmpty();
-        verify(bookingRepository, times(1)).findAllByItem_Owner_IdOrderByStartDesc(eq(ownerId), any(Pageable.class));
+        verify(bookingRepository, times(1)).findByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getUserId().equals(ownerId)
+                && query.getStatuses().isEmpty()), isNull(), eq(0L), eq(size));
     }
 
     @Test
@@ -372,20 +444,20 @@ public class BookingServiceUnitTests {
         Long ownerId = 1L;
         int from = 0;
         int size = 10;
-        Pageable pageable = PageRequest.of(from / size, size);
         Booking booking = new Booking();
         booking.setId(1L);
 
         UserDto ownerDto = new UserDto(1L, "Owner", "owner@example.com");
 
         when(userService.getById(ownerId)).thenReturn(ownerDto);
-        when(bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(eq(ownerId), eq(BookingStatus.WAITING), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findByQuery(any(BookingQuery.class), isNull(), eq(0L), eq(size)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(booking)));
 
         List<BookingDtoForAnswer> result = bookingService.getByOwner((long) from, (long) size, "WAITING", ownerId);
 
         assertThat(result).isNotEmpty();
-        verify(bookingRepository, times(1)).findAllByItem_Owner_IdAndStatusOrderByStartDesc(eq(ownerId), eq(BookingStatus.WAITING), any(Pageable.class));
+        verify(bookingRepository, times(1)).findByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getStatuses().equals(Set.of(BookingStatus.WAITING))), isNull(), eq(0L), eq(size));
     }
 
     @Test
@@ -393,19 +465,155 @@ public class BookingServiceUnitTests {
         Long ownerId = 1L;
         int from = 0;
         int size = 10;
-        Pageable pageable = PageRequest.of(from / size, size);
         Booking booking = new Booking();
         booking.setId(1L);
 
         UserDto ownerDto = new UserDto(1L, "Owner", "owner@example.com");
 
         when(userService.getById(ownerId)).thenReturn(ownerDto);
-        when(bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(eq(ownerId), eq(BookingStatus.REJECTED), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(booking)));
+        when(bookingRepository.findByQuery(any(BookingQuery.class), isNull(), eq(0L), eq(size)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(booking)));
 
         List<BookingDtoForAnswer> result = bookingService.getByOwner((long) from, (long) size, "REJECTED", ownerId);
 
         assertThat(result).isNotEmpty();
-        verify(bookingRepository, times(1)).findAllByItem_Owner_IdAndStatusOrderByStartDesc(eq(ownerId), eq(BookingStatus.REJECTED), any(Pageable.class));
+        verify(bookingRepository, times(1)).findByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getStatuses().equals(Set.of(BookingStatus.REJECTED))), isNull(), eq(0L), eq(size));
+    }
+
+    @Test
+    public void testGetByUserCanceledState() {
+        Long userId = 1L;
+        Booking booking = new Booking();
+        booking.setId(1L);
+
+        when(bookingRepository.findByQuery(any(BookingQuery.class), isNull(), eq(0L), eq(10)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(booking)));
+
+        List<BookingDtoForAnswer> result = bookingService.getByUser(0L, 10L, "CANCELED", userId);
+
+        assertThat(result).hasSize(1);
+        verify(bookingRepository, times(1)).findByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getStatuses().equals(Set.of(BookingStatus.CANCELED))), isNull(), eq(0L), eq(10));
+    }
+
+    @Test
+    public void testGetByUserOffsetIsRoundedDownToPage() {
+        Long userId = 1L;
+
+        when(bookingRepository.findByQuery(any(BookingQuery.class), isNull(), anyLong(), anyInt()))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        bookingService.getByUser(25L, 10L, "ALL", userId);
+
+        verify(bookingRepository, times(1)).findByQuery(any(BookingQuery.class), isNull(), eq(20L), eq(10));
+    }
+
+    @Test
+    public void testDecideAllReportsEveryDecisionAndWritesOnce() {
+        Long ownerId = 1L;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = waitingBooking(10L, ownerId, start, start.plusDays(2));
+        Booking overlapping = waitingBooking(11L, ownerId, start.plusDays(1), start.plusDays(3));
+        Booking rejected = waitingBooking(12L, ownerId, start, start.plusDays(1));
+        rejected.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.findAllByIdIn(Set.of(10L, 11L, 12L, 13L)))
+                .thenReturn(List.of(first, overlapping, rejected));
+        when(bookingRepository.decideAllWaiting(Map.of(10L, BookingStatus.APPROVED), ownerId)).thenReturn(Set.of(10L));
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(
+                new BookingDecisionDto(11L, true),
+                new BookingDecisionDto(13L, false),
+                new BookingDecisionDto(10L, true),
+                new BookingDecisionDto(12L, true)), ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getBookingId).containsExactly(11L, 13L, 10L, 12L);
+        assertThat(results).extracting(BookingDecisionResultDto::getStatus)
+                .containsExactly(null, null, BookingStatus.APPROVED, null);
+        assertThat(results).extracting(BookingDecisionResultDto::getError).containsExactly(
+                "Предмет уже забронирован на это время", "Брони с таким ID не существует", null,
+                "Бронь уже рассмотрена!");
+        verify(bookingRepository, times(1)).decideAllWaiting(any(), any());
+        verify(eventPublisher, times(1)).publishEvent(any(BookingChangedEvent.class));
+        verify(intervalIndex).add(100L, 10L, first.getStart(), first.getEnd());
+    }
+
+    @Test
+    public void testDecideAllIndexesOnlyApprovalsThatWereWritten() {
+        Long ownerId = 1L;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking decidedElsewhere = waitingBooking(10L, ownerId, start, start.plusDays(1));
+        when(bookingRepository.findAllByIdIn(Set.of(10L))).thenReturn(List.of(decidedElsewhere));
+        when(bookingRepository.decideAllWaiting(Map.of(10L, BookingStatus.APPROVED), ownerId)).thenReturn(Set.of());
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(new BookingDecisionDto(10L, true)),
+                ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getError).containsExactly("Бронь уже рассмотрена!");
+        verify(intervalIndex).checkAvailable(100L, 10L, start, start.plusDays(1));
+        verify(intervalIndex, never()).add(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testDecideAllRefusesBookingsOfOtherOwners() {
+        Long ownerId = 1L;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking foreign = waitingBooking(10L, 2L, start, start.plusDays(1));
+        when(bookingRepository.findAllByIdIn(Set.of(10L))).thenReturn(List.of(foreign));
+
+        List<BookingDecisionResultDto> results = bookingService.decideAll(List.of(
+                new BookingDecisionDto(10L, false)), ownerId);
+
+        assertThat(results).extracting(BookingDecisionResultDto::getError).containsExactly(
+                "Подтвердить бронь может только владелец вещи!");
+        verify(bookingRepository, never()).decideAllWaiting(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testDecideAllRejectsBatchWithRepeatedIds() {
+        List<BookingDecisionDto> decisions = List.of(
+                new BookingDecisionDto(10L, false),
+                new BookingDecisionDto(11L, false),
+                new BookingDecisionDto(11L, true));
+
+        assertThatThrownBy(() -> bookingService.decideAll(decisions, 1L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Бронь указана в пакете несколько раз");
+        verify(bookingRepository, never()).findAllByIdIn(any());
+        verify(bookingRepository, never()).decideAllWaiting(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static Booking waitingBooking(Long id, Long ownerId, LocalDateTime start, LocalDateTime end) {
+        User owner = new User();
+        owner.setId(ownerId);
+        Item item = new Item();
+        item.setId(100L);
+        item.setOwner(owner);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setBooker(User.builder().id(3L).build());
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.WAITING);
+        return booking;
+    }
+
+    private static BookingAdmission admission(ItemBookingDto item, UserDto booker) {
+        BookingAdmission admission = mock(BookingAdmission.class);
+        when(admission.getItemId()).thenReturn(item.getId());
+        when(admission.getItemName()).thenReturn(item.getName());
+        when(admission.getAvailable()).thenReturn(item.getAvailable());
+        when(admission.getOwnerId()).thenReturn(item.getOwner().getId());
+        when(admission.getOwnerName()).thenReturn(item.getOwner().getName());
+        when(admission.getOwnerEmail()).thenReturn(item.getOwner().getEmail());
+        if (booker != null) {
+            when(admission.getBookerName()).thenReturn(booker.getName());
+            when(admission.getBookerEmail()).thenReturn(booker.getEmail());
+        }
+        return admission;
     }
-}
\ No newline at end of file
+}
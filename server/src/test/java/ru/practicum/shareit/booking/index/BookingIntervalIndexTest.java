@@ -0,0 +1,151 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingConflictException;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BookingIntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        BookingRepository repository = mock(BookingRepository.class);
+        when(repository.findIntervalsByStatusInAndEndAfter(any(), any())).thenReturn(Collections.emptyList());
+        index = new BookingIntervalIndex(repository);
+        index.load();
+    }
+
+    @Test
+    public void testAdjacentBookingsDoNotConflict() {
+        index.add(1L, 1L, BASE, BASE.plusDays(1));
+        index.add(1L, 2L, BASE.plusDays(1), BASE.plusDays(2));
+
+        index.checkAvailable(1L, BASE.plusDays(2), BASE.plusDays(3));
+        index.checkAvailable(1L, BASE.minusDays(1), BASE);
+    }
+
+    @Test
+    public void testOverlappingBookingIsRejectedWithNextFreeSlot() {
+        index.add(1L, 1L, BASE, BASE.plusDays(1));
+        index.add(1L, 2L, BASE.plusDays(1), BASE.plusDays(2));
+        index.add(1L, 3L, BASE.plusDays(3), BASE.plusDays(4));
+
+        assertThatThrownBy(() -> index.add(1L, 4L, BASE.plusHours(12), BASE.plusHours(36)))
+                .isInstanceOf(BookingConflictException.class)
+                .extracting("nextFreeSlot")
+                .isEqualTo(BASE.plusDays(2));
+    }
+
+    @Test
+    public void testNestedIntervalLoadedFromRepositoryIsFound() {
+        BookingRepository repository = mock(BookingRepository.class);
+        when(repository.findIntervalsByStatusInAndEndAfter(any(), any()))
+                .thenReturn(List.of(interval(1L, BASE, BASE.plusDays(10)), interval(2L, BASE.plusDays(1), BASE.plusDays(2))));
+        index = new BookingIntervalIndex(repository);
+        index.load();
+
+        assertThatThrownBy(() -> index.checkAvailable(1L, BASE.plusDays(5), BASE.plusDays(6)))
+                .isInstanceOf(BookingConflictException.class);
+    }
+
+    @Test
+    public void testOtherItemsAreIndependent() {
+        index.add(1L, 1L, BASE, BASE.plusDays(1));
+
+        index.checkAvailable(2L, BASE, BASE.plusDays(1));
+        assertThat(index.nextFreeSlot(2L, BASE, Duration.ofDays(1))).isEqualTo(BASE);
+    }
+
+    @Test
+    public void testRemovedBookingFreesRange() {
+        index.add(1L, 1L, BASE, BASE.plusDays(1));
+        index.remove(1L, 1L);
+
+        index.checkAvailable(1L, BASE, BASE.plusDays(1));
+    }
+
+    @Test
+    public void testSlotsOfRemovedUserAreFreed() {
+        index.add(1L, 1L, BASE, BASE.plusDays(1));
+        index.add(1L, 2L, BASE.plusDays(1), BASE.plusDays(2));
+        index.add(2L, 3L, BASE, BASE.plusDays(1));
+
+        index.onUserChanged(UserChangedEvent.removed(7L, List.of(2L), Map.of(1L, 1L)));
+
+        assertThat(index.nextFreeSlot(1L, BASE, Duration.ofDays(1))).isEqualTo(BASE);
+        index.add(1L, 4L, BASE, BASE.plusDays(1));
+        index.add(2L, 5L, BASE, BASE.plusDays(1));
+        assertThatThrownBy(() -> index.checkAvailable(1L, BASE.plusDays(1), BASE.plusDays(2)))
+                .isInstanceOf(BookingConflictException.class);
+    }
+
+    @Test
+    public void testManyBookingsKeepTreeConsistent() {
+        for (long i = 0; i < 1000; i++) {
+            index.add(1L, i, BASE.plusHours(2 * i), BASE.plusHours(2 * i + 1));
+        }
+        for (long i = 0; i < 1000; i += 2) {
+            index.remove(1L, i);
+        }
+
+        index.checkAvailable(1L, BASE, BASE.plusHours(2));
+        assertThat(index.nextFreeSlot(1L, BASE.plusHours(2), Duration.ofHours(2))).isEqualTo(BASE.plusHours(3));
+        assertThatThrownBy(() -> index.checkAvailable(1L, BASE.plusHours(1998), BASE.plusHours(2000)))
+                .isInstanceOf(BookingConflictException.class);
+    }
+
+    @Test
+    public void testEndedBookingsAreDroppedWhenAnotherIsAdded() {
+        LocalDateTime now = LocalDateTime.now();
+        index.add(1L, 1L, now.minusDays(3), now.minusDays(2));
+        index.add(1L, 2L, now.minusDays(2), now.minusDays(1));
+        index.remove(1L, 2L);
+        index.add(1L, 3L, now.minusDays(1), now.plusDays(1));
+
+        index.add(1L, 4L, BASE, BASE.plusDays(1));
+
+        assertThat(index.size(1L)).isEqualTo(2);
+        assertThatThrownBy(() -> index.checkAvailable(1L, now, now.plusHours(1)))
+                .isInstanceOf(BookingConflictException.class);
+    }
+
+    private static BookingInterval interval(Long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.Constants;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = BookingController.class, properties = {
+        "shareit.bookings.stream.sender-threads=1",
+        "shareit.bookings.stream.send-timeout=200ms"
+})
+@Import(OwnerBookingStream.class)
+public class OwnerBookingStreamTest {
+    private static final Pattern EVENT = Pattern.compile("id:(\\S+)\\nevent:(\\S+)\\ndata:(.*)\\n");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OwnerBookingStream stream;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private UserService userService;
+
+    @Test
+    public void testOwnerGetsEventsOfOwnItemsOnly() throws Exception {
+        MockHttpServletResponse response = subscribe(1L, null);
+
+        stream.onBookingChanged(event(10L, 1L, BookingStatus.WAITING));
+        stream.onBookingChanged(event(11L, 2L, BookingStatus.WAITING));
+        stream.onBookingChanged(event(10L, 1L, BookingStatus.APPROVED));
+
+        List<String[]> events = awaitEvents(response, 2);
+        assertThat(events).extracting(event -> event[1])
+                .containsExactly(OwnerBookingStream.CREATED, OwnerBookingStream.STATUS_CHANGED);
+        assertThat(events.get(0)[2]).contains("\"bookingId\":10").contains("\"status\":\"WAITING\"");
+        assertThat(events.get(1)[2]).contains("\"status\":\"APPROVED\"");
+    }
+
+    @Test
+    public void testReconnectReplaysEventsAfterLastEventId() throws Exception {
+        MockHttpServletResponse first = subscribe(3L, null);
+        stream.onBookingChanged(event(20L, 3L, BookingStatus.WAITING));
+        stream.onBookingChanged(event(21L, 3L, BookingStatus.WAITING));
+        stream.onBookingChanged(event(20L, 3L, BookingStatus.REJECTED));
+        String firstId = awaitEvents(first, 3).get(0)[0];
+
+        MockHttpServletResponse second = subscribe(3L, firstId);
+
+        List<String[]> replayed = awaitEvents(second, 2);
+        assertThat(replayed.get(0)[2]).contains("\"bookingId\":21");
+        assertThat(replayed.get(1)[2]).contains("\"bookingId\":20").contains("REJECTED");
+    }
+
+    @Test
+    public void testUnknownLastEventIdGetsReset() throws Exception {
+        subscribe(4L, null);
+        stream.onBookingChanged(event(30L, 4L, BookingStatus.WAITING));
+
+        MockHttpServletResponse response = subscribe(4L, "earlier-run:1");
+
+        assertThat(awaitEvents(response, 1).get(0)[1]).isEqualTo(OwnerBookingStream.RESET);
+    }
+
+    @Test
+    public void testUnknownOwnerCannotSubscribe() throws Exception {
+        doThrow(new NoSuchElementException("Юзера с таким ID не существует")).when(userService).checkExists(99L);
+
+        mockMvc.perform(get(Constants.BOOKINGS_PATH + Constants.OWNER_STREAM)
+                        .header("X-Sharer-User-Id", 99L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testOverflowDoesNotBlockPublisherOnSlowStream() throws Exception {
+        OwnerBookingStream slow = new OwnerBookingStream(userService, Duration.ofMinutes(1), 1, 0, 1,
+                Duration.ofSeconds(10));
+        try {
+            SseEmitter emitter = slow.subscribe(5L, null);
+            Thread publisher = new Thread(() -> {
+                for (long id = 1; id <= 3; id++) {
+                    slow.onBookingChanged(event(id, 5L, BookingStatus.WAITING));
+                }
+            });
+            // the sender thread blocks on the emitter's monitor in send, as it would on a client that does not read
+            synchronized (emitter) {
+                publisher.start();
+                publisher.join(5_000);
+
+                assertThat(publisher.isAlive()).isFalse();
+                assertThat(slow.subscriberCount(5L)).isZero();
+            }
+        } finally {
+            slow.close();
+        }
+    }
+
+    @Test
+    public void testStalledSendClosesStreamWithoutStarvingOthers() throws Exception {
+        SseEmitter stalled = stream.subscribe(6L, null);
+        MockHttpServletResponse response = subscribe(7L, null);
+
+        // the only sender thread blocks on the emitter's monitor in send, as it would on a client that does not read
+        synchronized (stalled) {
+            stream.onBookingChanged(event(40L, 6L, BookingStatus.WAITING));
+            stream.onBookingChanged(event(41L, 7L, BookingStatus.WAITING));
+
+            assertThat(awaitEvents(response, 1).get(0)[2]).contains("\"bookingId\":41");
+            assertThat(stream.subscriberCount(6L)).isZero();
+        }
+    }
+
+    @Test
+    public void testRemovedOwnerIsForgotten() throws Exception {
+        subscribe(8L, null);
+        stream.onBookingChanged(event(50L, 8L, BookingStatus.WAITING));
+        assertThat(stream.subscriberCount(8L)).isEqualTo(1);
+
+        stream.onUserChanged(UserChangedEvent.removed(8L, List.of(), Map.of()));
+
+        assertThat(stream.subscriberCount(8L)).isZero();
+        assertThat(stream.isTracked(8L)).isFalse();
+    }
+
+    private MockHttpServletResponse subscribe(Long ownerId, String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = get(Constants.BOOKINGS_PATH + Constants.OWNER_STREAM)
+                .header("X-Sharer-User-Id", ownerId);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static List<String[]> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (true) {
+            List<String[]> events = new ArrayList<>();
+            Matcher matcher = EVENT.matcher(response.getContentAsString());
+            while (matcher.find()) {
+                events.add(new String[]{matcher.group(1), matcher.group(2), matcher.group(3)});
+            }
+            if (events.size() >= count || System.currentTimeMillis() > deadline) {
+                assertThat(events).hasSize(count);
+                return events;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static BookingChangedEvent event(Long bookingId, Long ownerId, BookingStatus status) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return new BookingChangedEvent(bookingId, 100L + ownerId, ownerId, 7L, start, start.plusDays(1), status);
+    }
+}
@@ -7,22 +7,32 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comment.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.ItemDtoForUpdate;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
+import ru.practicum.shareit.item.importer.ItemImportFormat;
+import ru.practicum.shareit.item.importer.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.utils.ItemApiPathConstants;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
@@ -34,6 +44,9 @@ public class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImporter itemImporter;
+
     private ItemDto itemDto;
     private ItemDtoForUpdate itemDtoForUpdate;
     private ItemBookingDto itemBookingDto;
@@ -150,6 +163,20 @@ public class ItemControllerTest {
         verify(itemService, times(1)).search(anyString(), anyLong(), anyLong());
     }
 
+    @Test
+    void testSuggest() throws Exception {
+        when(itemService.suggest("др", 5)).thenReturn(List.of(new ItemSuggestionDto(1L, "Дрель")));
+
+        mockMvc.perform(get(ItemApiPathConstants.ITEMS_PATH + ItemApiPathConstants.SUGGEST_ITEMS_PATH)
+                        .param("prefix", "др")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].name").value("Дрель"));
+
+        verify(itemService, times(1)).suggest("др", 5);
+    }
+
     @Test
     void testAddComment() throws Exception {
         when(itemService.addComment(anyLong(), anyLong(), any(CommentDto.class))).thenReturn(commentDto);
@@ -165,4 +192,33 @@ public class ItemControllerTest {
 
         verify(itemService, times(1)).addComment(anyLong(), anyLong(), any(CommentDto.class));
     }
+
+    @Test
+    void testImportStreamsReport() throws Exception {
+        StreamingResponseBody report = out -> out.write("{\"line\":2,\"itemId\":5,\"error\":null}\n"
+                .getBytes(StandardCharsets.UTF_8));
+        when(itemImporter.importItems(any(InputStream.class), eq(ItemImportFormat.CSV), eq(1L))).thenReturn(report);
+
+        MvcResult result = mockMvc.perform(post(ItemApiPathConstants.ITEMS_PATH + ItemApiPathConstants.IMPORT_ITEMS_PATH)
+                        .content("name,description,available\nДрель,Ударная,true\n")
+                        .contentType("text/csv")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"line\":2,\"itemId\":5,\"error\":null}\n"));
+    }
+
+    @Test
+    void testImportRejectsUnsupportedFormat() throws Exception {
+        mockMvc.perform(post(ItemApiPathConstants.ITEMS_PATH + ItemApiPathConstants.IMPORT_ITEMS_PATH)
+                        .content("<items/>")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isUnsupportedMediaType());
+        verifyNoInteractions(itemImporter);
+    }
 }
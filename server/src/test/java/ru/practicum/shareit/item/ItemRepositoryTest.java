@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.RequestedItemDto;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
@@ -53,10 +54,12 @@ public class ItemRepositoryTest {
     }
 
     @Test
-    public void testFindAllByRequestId() {
-        List<Item> items = itemRepository.findAllByRequestId(itemRequest.getId());
+    public void testFindAllByRequestIdIn() {
+        List<RequestedItemDto> items = itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId(), -1L));
         assertThat(items).hasSize(1);
-        assertThat(items.get(0)).isEqualTo(item);
+        assertThat(items.get(0).getId()).isEqualTo(item.getId());
+        assertThat(items.get(0).getName()).isEqualTo(item.getName());
+        assertThat(items.get(0).getRequestId()).isEqualTo(itemRequest.getId());
     }
 
     @Test
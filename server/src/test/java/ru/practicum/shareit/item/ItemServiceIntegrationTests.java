@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,8 @@ import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoForUpdate;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
+import ru.practicum.shareit.comment.Comment;
+import ru.practicum.shareit.comment.CommentDto;
 import ru.practicum.shareit.comment.CommentRepository;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.RequestRepository;
@@ -22,14 +26,16 @@ import ru.practicum.shareit.user.User;
 import javax.persistence.EntityManager;
 import java.nio.file.AccessDeniedException;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Transactional
 public class ItemServiceIntegrationTests {
 
@@ -99,6 +105,47 @@ public class ItemServiceIntegrationTests {
         entityManager.clear();
     }
 
+    @Test
+    public void testGetAllByOwnerRunsFixedNumberOfQueries() {
+        User booker = userRepository.save(User.builder().name("Booker").email("booker@example.com").build());
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> lastBookingIds = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            Item other = itemRepository.save(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .owner(user)
+                    .available(true)
+                    .build());
+            for (int days = 30; days > 2; days -= 7) {
+                bookingRepository.save(Booking.builder().item(other).booker(booker)
+                        .start(now.minusDays(days)).end(now.minusDays(days - 1)).status(BookingStatus.APPROVED).build());
+            }
+            lastBookingIds.add(bookingRepository.save(Booking.builder().item(other).booker(booker)
+                    .start(now.minusDays(2)).end(now.minusDays(1)).status(BookingStatus.APPROVED).build()).getId());
+            bookingRepository.save(Booking.builder().item(other).booker(booker)
+                    .start(now.plusDays(1)).end(now.plusDays(2)).status(BookingStatus.WAITING).build());
+            commentRepository.save(Comment.builder().text("Comment " + i).item(other).author(booker).created(now).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        long bookings = bookingRepository.count();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemBookingDto> items = itemService.getAllByOwner(user.getId(), 0L, 50L);
+
+        assertThat(items).hasSize(21);
+        assertThat(items.subList(1, 21)).allSatisfy(dto -> {
+            assertThat(dto.getLastBooking().getBookerId()).isEqualTo(booker.getId());
+            assertThat(dto.getLastBooking().getId()).isIn(lastBookingIds);
+            assertThat(dto.getNextBooking().getStatus()).isEqualTo(BookingStatus.WAITING);
+            assertThat(dto.getComments()).extracting(CommentDto::getAuthorName).containsExactly("Booker");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isLessThan(bookings);
+    }
+
     @Test
     public void testGetAllByOwner() {
         List<ItemBookingDto> items = itemService.getAllByOwner(user.getId(), 0L, 10L);
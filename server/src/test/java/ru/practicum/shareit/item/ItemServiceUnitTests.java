@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -19,7 +22,14 @@ import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
+import ru.practicum.shareit.item.suggest.ItemSuggestionIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.match.RequestMatchEvent;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.User;
@@ -27,9 +37,11 @@ import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.ValidationException;
 import java.nio.file.AccessDeniedException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -56,6 +68,21 @@ public class ItemServiceUnitTests {
     @Mock
     private RequestRepository requestRepository;
 
+    @Mock
+    private ItemSearchBackend searchBackend;
+
+    @Mock
+    private ItemSuggestionIndex suggestionIndex;
+
+    @Spy
+    private ItemViewCache viewCache = new ItemViewCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+    @Mock
+    private RequestMatcher requestMatcher;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private ItemMapper itemMapper;
 
@@ -85,11 +112,14 @@ public class ItemServiceUnitTests {
         when(itemMapper.toItem(any(ItemDto.class))).thenReturn(item);
         when(itemRepository.save(any(Item.class))).thenReturn(item);
         when(itemMapper.toDto(any(Item.class))).thenReturn(itemDto);
+        RequestMatchEvent match = new RequestMatchEvent(2L, new RequestMatchDto(3L, null, "Item", "Description", false));
+        when(requestMatcher.match(item)).thenReturn(List.of(match));
 
         ItemDto result = itemService.add(itemDto, ownerId);
 
         assertThat(result).isNotNull();
         verify(itemRepository, times(1)).save(any(Item.class));
+        verify(eventPublisher).publishEvent(match);
     }
 
     @Test
@@ -146,6 +176,30 @@ public class ItemServiceUnitTests {
         verify(itemRepository, times(1)).findById(itemId);
     }
 
+    @Test
+    public void testGetByIdIsCachedPerViewer() {
+        Long itemId = 1L;
+        User owner = User.builder().id(1L).name("John").email("john@example.com").build();
+        Item item = Item.builder().id(itemId).name("Item").owner(owner).build();
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        ItemBookingDto forOwner = itemService.getById(itemId, 1L);
+        ItemBookingDto forOther = itemService.getById(itemId, 2L);
+        ItemBookingDto forThird = itemService.getById(itemId, 3L);
+        ItemBookingDto forOwnerAgain = itemService.getById(itemId, 1L);
+
+        assertThat(forOther).isSameAs(forThird);
+        assertThat(forOwner).isSameAs(forOwnerAgain).isNotSameAs(forOther);
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(bookingRepository, times(1)).findAllByItem_idAndStartIsAfterOrderByStartAsc(eq(itemId), any());
+
+        viewCache.onItemSaved(new ItemSavedEvent(itemId, "Item", "Updated", true));
+        itemService.getById(itemId, 2L);
+
+        verify(itemRepository, times(2)).findById(itemId);
+    }
+
     @Test
     public void testGetByIdThrowsNoSuchElementException() {
         Long itemId = 1L;
@@ -198,13 +252,13 @@ public class ItemServiceUnitTests {
         List<Item> items = Collections.singletonList(Item.builder().id(1L).build());
         Page<Item> pageItems = new PageImpl<>(items);
 
-        when(itemRepository.search(eq(text), any(Pageable.class))).thenReturn(pageItems);
+        when(searchBackend.search(eq(text), any(Pageable.class))).thenReturn(pageItems);
         when(itemMapper.itemsToItemDto(anyList())).thenReturn(Collections.singletonList(ItemDto.builder().id(1L).build()));
 
         List<ItemDto> result = itemService.search(text, from, size);
 
         assertThat(result).isNotEmpty();
-        verify(itemRepository, times(1)).search(eq(text), any(Pageable.class));
+        verify(searchBackend, times(1)).search(eq(text), any(Pageable.class));
     }
 
     @Test
@@ -212,7 +266,7 @@ public class ItemServiceUnitTests {
         List<ItemDto> result = itemService.search("", 0L, 10L);
 
         assertThat(result).isEmpty();
-        verify(itemRepository, times(0)).search(anyString(), any(Pageable.class));
+        verify(searchBackend, times(0)).search(anyString(), any(Pageable.class));
     }
 
     @Test
@@ -326,17 +380,26 @@ public class ItemServiceUnitTests {
     }
 
     @Test
-    public void testGetAllByRequestId() {
-        Long requestId = 1L;
-        Item item = Item.builder().id(1L).build();
-        RequestedItemDto requestedItemDto = RequestedItemDto.builder().id(1L).build();
+    public void testGetAllByRequestIdsGroupsByRequest() {
+        List<Long> requestIds = List.of(1L, 2L, 3L);
+        List<RequestedItemDto> items = List.of(
+                RequestedItemDto.builder().id(10L).requestId(1L).build(),
+                RequestedItemDto.builder().id(11L).requestId(2L).build(),
+                RequestedItemDto.builder().id(12L).requestId(1L).build());
 
-        when(itemRepository.findAllByRequestId(requestId)).thenReturn(Collections.singletonList(item));
-        when(itemMapper.toListRequestedItemDto(anyList())).thenReturn(Collections.singletonList(requestedItemDto));
+        when(itemRepository.findAllByRequestIdIn(requestIds)).thenReturn(items);
 
-        List<RequestedItemDto> result = itemService.getAllByRequestId(requestId);
+        Map<Long, List<RequestedItemDto>> result = itemService.getAllByRequestIds(requestIds);
 
-        assertThat(result).isNotEmpty();
-        verify(itemRepository, times(1)).findAllByRequestId(requestId);
+        assertThat(result.get(1L)).extracting(RequestedItemDto::getId).containsExactly(10L, 12L);
+        assertThat(result.get(2L)).extracting(RequestedItemDto::getId).containsExactly(11L);
+        assertThat(result).doesNotContainKey(3L);
+        verify(itemRepository, times(1)).findAllByRequestIdIn(requestIds);
+    }
+
+    @Test
+    public void testGetAllByRequestIdsWithoutIdsSkipsQuery() {
+        assertThat(itemService.getAllByRequestIds(List.of())).isEmpty();
+        verify(itemRepository, never()).findAllByRequestIdIn(anyCollection());
     }
 }
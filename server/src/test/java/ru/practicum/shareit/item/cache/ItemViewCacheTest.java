@@ -0,0 +1,115 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.comment.CommentAddedEvent;
+import ru.practicum.shareit.item.dto.ItemBookingDto;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ItemViewCacheTest {
+    private static final Instant NOW = Instant.parse("2030-01-01T12:00:00Z");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final ItemViewCache cache = new ItemViewCache(100, Duration.ofMinutes(10), ticker,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    private final AtomicInteger publicLoads = new AtomicInteger();
+    private final AtomicInteger ownerLoads = new AtomicInteger();
+
+    @Test
+    public void testOwnerViewExpiresWhenNextBookingStarts() {
+        LocalDateTime nextStart = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).plusMinutes(3);
+
+        getOwner(nextStart);
+        advance(Duration.ofMinutes(2));
+        getOwner(nextStart);
+        assertThat(ownerLoads).hasValue(1);
+
+        advance(Duration.ofMinutes(1).plusSeconds(1));
+        getOwner(nextStart);
+        assertThat(ownerLoads).hasValue(2);
+    }
+
+    @Test
+    public void testOwnerViewWithoutNextBookingUsesTtl() {
+        getOwner(null);
+        advance(Duration.ofMinutes(9));
+        getOwner(null);
+        assertThat(ownerLoads).hasValue(1);
+
+        advance(Duration.ofMinutes(2));
+        getOwner(null);
+        assertThat(ownerLoads).hasValue(2);
+    }
+
+    @Test
+    public void testBookingChangeDropsOnlyOwnerView() {
+        getPublic();
+        getOwner(null);
+
+        cache.onBookingChanged(new BookingChangedEvent(10L, 1L, 2L, 3L, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(1), BookingStatus.APPROVED));
+        getPublic();
+        getOwner(null);
+
+        assertThat(publicLoads).hasValue(1);
+        assertThat(ownerLoads).hasValue(2);
+    }
+
+    @Test
+    public void testCommentDropsBothViews() {
+        getPublic();
+        getOwner(null);
+
+        cache.onCommentAdded(new CommentAddedEvent(5L, 1L));
+        cache.onCommentAdded(new CommentAddedEvent(6L, 2L));
+        getPublic();
+        getOwner(null);
+
+        assertThat(publicLoads).hasValue(2);
+        assertThat(ownerLoads).hasValue(2);
+    }
+
+    @Test
+    public void testUserChangeDropsAllViews() {
+        getPublic();
+        getOwner(null);
+
+        cache.onUserChanged(UserChangedEvent.updated(2L));
+        getPublic();
+        getOwner(null);
+
+        assertThat(publicLoads).hasValue(2);
+        assertThat(ownerLoads).hasValue(2);
+    }
+
+    private void getPublic() {
+        cache.getPublic(1L, id -> {
+            publicLoads.incrementAndGet();
+            return ItemBookingDto.builder().id(id).build();
+        });
+    }
+
+    private void getOwner(LocalDateTime validUntil) {
+        cache.getOwner(1L, id -> {
+            ownerLoads.incrementAndGet();
+            return new OwnerItemView(ItemBookingDto.builder().id(id).build(), validUntil);
+        });
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
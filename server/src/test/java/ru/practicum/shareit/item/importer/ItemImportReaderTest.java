@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ItemImportReaderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testReadsNdjsonAndSkipsBlankLines() throws IOException {
+        List<ItemImportLine> lines = readAll(ItemImportFormat.NDJSON,
+                "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true,\"requestId\":7}\n"
+                        + "\n"
+                        + "{\"name\":\n");
+
+        assertThat(lines).extracting(ItemImportLine::getNumber).containsExactly(1L, 3L);
+        assertThat(lines.get(0).getItem().getName()).isEqualTo("Дрель");
+        assertThat(lines.get(0).getItem().getRequestId()).isEqualTo(7L);
+        assertThat(lines.get(1).getItem()).isNull();
+        assertThat(lines.get(1).getError()).startsWith("Строка не является объектом JSON");
+    }
+
+    @Test
+    public void testReadsCsvByHeaderNames() throws IOException {
+        List<ItemImportLine> lines = readAll(ItemImportFormat.CSV,
+                "\uFEFFRequestId,Available,Name,Description\n"
+                        + ",true,Дрель,\"Ударная, 800 Вт\"\n"
+                        + "3,false,\"Лестница \"\"Алюмет\"\"\",Три секции\n"
+                        + "x,true,Пила,Цепная\n"
+                        + "1,maybe,Пила,Цепная\n");
+
+        assertThat(lines).extracting(ItemImportLine::getNumber).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(lines.get(0).getItem().getDescription()).isEqualTo("Ударная, 800 Вт");
+        assertThat(lines.get(0).getItem().getRequestId()).isNull();
+        assertThat(lines.get(1).getItem().getName()).isEqualTo("Лестница \"Алюмет\"");
+        assertThat(lines.get(1).getItem().getAvailable()).isFalse();
+        assertThat(lines.get(1).getItem().getRequestId()).isEqualTo(3L);
+        assertThat(lines.get(2).getError()).isEqualTo("Некорректный ID запроса: x");
+        assertThat(lines.get(3).getError()).isEqualTo("Статус доступа должен быть true или false");
+    }
+
+    @Test
+    public void testCsvWithoutRequiredColumnEndsAtHeader() throws IOException {
+        List<ItemImportLine> lines = readAll(ItemImportFormat.CSV, "name,available\nДрель,true\n");
+
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getError()).isEqualTo("В заголовке CSV нет столбца description");
+    }
+
+    @Test
+    public void testSplitRejectsUnclosedQuote() {
+        assertThatThrownBy(() -> ItemImportReader.split("a,\"b,c"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Незакрытая кавычка в строке CSV");
+    }
+
+    private List<ItemImportLine> readAll(ItemImportFormat format, String body) throws IOException {
+        ItemImportReader reader = new ItemImportReader(new BufferedReader(new StringReader(body)), format, objectMapper);
+        List<ItemImportLine> lines = new ArrayList<>();
+        ItemImportLine line;
+        while ((line = reader.next()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "shareit.items.import.batch-size=2")
+@Transactional
+public class ItemImporterIntegrationTest {
+    @Autowired
+    private ItemImporter importer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private ItemRequest request;
+
+    @BeforeEach
+    public void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("owner@example.com").build());
+        User requester = userRepository.save(User.builder().name("Requester").email("requester@example.com").build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("Нужна стремянка")
+                .requester(requester)
+                .created(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    public void testImportsValidLinesAndReportsEveryLine() throws IOException {
+        String body = "name,description,available,requestId\n"
+                + "Дрель,Ударная,true,\n"
+                + ",Без имени,true,\n"
+                + "Стремянка,Три ступени,true," + request.getId() + "\n"
+                + "Пила,Цепная,false,999999\n"
+                + "Лобзик,Ручной,true,\n";
+
+        List<ItemImportResultDto> report = importCsv(body, owner.getId());
+
+        assertThat(report).extracting(ItemImportResultDto::getLine).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(report.get(1).getError()).startsWith("name:");
+        assertThat(report.get(3).getError()).isEqualTo("Запроса с таким ID не найдено");
+        List<Long> ids = new ArrayList<>();
+        for (int i : new int[]{0, 2, 4}) {
+            assertThat(report.get(i).getError()).isNull();
+            ids.add(report.get(i).getItemId());
+        }
+        List<Item> items = itemRepository.findAllById(ids);
+        assertThat(items).extracting(Item::getName).containsExactlyInAnyOrder("Дрель", "Стремянка", "Лобзик");
+        assertThat(items).allMatch(item -> item.getOwner().getId().equals(owner.getId()));
+        assertThat(items).filteredOn(item -> item.getName().equals("Стремянка"))
+                .allMatch(item -> item.getRequest().getId().equals(request.getId()));
+    }
+
+    @Test
+    public void testEveryLineOfFailedBatchIsReported() throws IOException {
+        String body = "name,description,available,requestId\n"
+                + "Дрель,Ударная,true,\n"
+                + "Стремянка,Три ступени,true,\n"
+                + "Лобзик,Ручной,true,\n"
+                + "x".repeat(256) + ",Слишком длинное имя,true,\n";
+
+        List<ItemImportResultDto> report = importCsv(body, owner.getId());
+
+        assertThat(report).hasSize(4);
+        assertThat(report.subList(0, 2)).allMatch(line -> line.getItemId() != null && line.getError() == null);
+        assertThat(report.subList(2, 4)).allMatch(line -> line.getItemId() == null
+                && line.getError().startsWith("Пакет строк не сохранён"));
+    }
+
+    @Test
+    public void testLineRefusedInFailedBatchKeepsItsReason() throws IOException {
+        String body = "name,description,available,requestId\n"
+                + "Пила,Цепная,true,999999\n"
+                + "x".repeat(256) + ",Слишком длинное имя,true,\n";
+
+        List<ItemImportResultDto> report = importCsv(body, owner.getId());
+
+        assertThat(report.get(0).getError()).isEqualTo("Запроса с таким ID не найдено");
+        assertThat(report.get(1).getItemId()).isNull();
+        assertThat(report.get(1).getError()).startsWith("Пакет строк не сохранён");
+    }
+
+    @Test
+    public void testUnknownOwnerIsRejectedBeforeReading() {
+        assertThatThrownBy(() -> importer.importItems(new ByteArrayInputStream(new byte[0]), ItemImportFormat.CSV, 999999L))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    private List<ItemImportResultDto> importCsv(String body, Long ownerId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importer.importItems(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ItemImportFormat.CSV, ownerId)
+                .writeTo(out);
+        List<ItemImportResultDto> report = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            report.add(objectMapper.readValue(line, ItemImportResultDto.class));
+        }
+        return report;
+    }
+}
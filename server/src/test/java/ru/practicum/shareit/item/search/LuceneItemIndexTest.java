@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.search;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.shareit.item.ItemSavedEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LuceneItemIndexTest {
+    @TempDir
+    Path directory;
+
+    private LuceneItemIndex index;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        index = new LuceneItemIndex(directory);
+        index.load(List.of(
+                new ItemSavedEvent(1L, "Дрель", "Аккумуляторная дрель с двумя батареями", true),
+                new ItemSavedEvent(2L, "Отвертка", "Подходит к дрели как насадка", true),
+                new ItemSavedEvent(3L, "Дрель ударная", "Сломана", false),
+                new ItemSavedEvent(4L, "Лестница", "Алюминиевая, три метра", true)));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    public void testNameMatchesRankAboveDescriptionMatches() throws IOException {
+        LuceneItemIndex.Hits hits = index.search("дрел", 0, 10);
+
+        assertThat(hits.ids).containsExactly(1L, 2L);
+        assertThat(hits.total).isEqualTo(2);
+    }
+
+    @Test
+    public void testUnavailableItemsAreFilteredOut() throws IOException {
+        assertThat(index.search("ударная", 0, 10).ids).isEmpty();
+    }
+
+    @Test
+    public void testAllWordsMustMatch() throws IOException {
+        assertThat(index.search("дрель батареями", 0, 10).ids).containsExactly(1L);
+        assertThat(index.search("дрель лестница", 0, 10).ids).isEmpty();
+    }
+
+    @Test
+    public void testUpdateIsVisibleImmediately() throws IOException {
+        index.update(new ItemSavedEvent(4L, "Стремянка", "Алюминиевая, три метра", true));
+        index.update(new ItemSavedEvent(5L, "Перфоратор", "Мощнее дрели", true));
+
+        assertThat(index.search("лестница", 0, 10).ids).isEmpty();
+        assertThat(index.search("стремянка", 0, 10).ids).containsExactly(4L);
+        assertThat(index.search("дрели", 0, 10).ids).contains(5L);
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void testUpdatesReachDiskOnCommit() throws IOException {
+        index.update(new ItemSavedEvent(5L, "Перфоратор", "Мощнее дрели", true));
+        assertThat(committedDocs()).isEqualTo(4);
+
+        index.commit();
+
+        assertThat(committedDocs()).isEqualTo(5);
+    }
+
+    @Test
+    public void testPaging() throws IOException {
+        assertThat(index.search("дрел", 1, 1).ids).containsExactly(2L);
+        assertThat(index.search("дрел", 2, 1).ids).isEmpty();
+    }
+
+    @Test
+    public void testIndexSurvivesReopen() throws IOException {
+        index.close();
+        index = new LuceneItemIndex(directory);
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.search("лестница", 0, 10).ids).containsExactly(4L);
+    }
+
+    @Test
+    public void testTextWithoutWordsFindsNothing() throws IOException {
+        assertThat(index.search("?!", 0, 10).ids).isEmpty();
+    }
+
+    private int committedDocs() throws IOException {
+        try (Directory fsDirectory = FSDirectory.open(directory);
+             DirectoryReader reader = DirectoryReader.open(fsDirectory)) {
+            return reader.numDocs();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoForUpdate;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shareit.search.backend=lucene")
+public class LuceneItemSearchBackendIntegrationTest {
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemSearchBackend searchBackend;
+
+    private UserDto owner;
+
+    @DynamicPropertySource
+    static void indexPath(DynamicPropertyRegistry registry) {
+        registry.add("shareit.search.lucene.path", () -> directory.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (owner != null) {
+            userRepository.deleteById(owner.getId());
+        }
+    }
+
+    @Test
+    public void testSavedItemsAreSearchableAfterCommit() throws AccessDeniedException {
+        assertThat(searchBackend).isInstanceOf(LuceneItemSearchBackend.class);
+        owner = userService.add(UserDto.builder().name("Lucene").email("lucene@example.com").build());
+        ItemDto item = itemService.add(ItemDto.builder()
+                .name("Палатка")
+                .description("Трехместная")
+                .available(true)
+                .build(), owner.getId());
+
+        List<ItemDto> found = itemService.search("палатк", 0L, 10L);
+        assertThat(found).extracting(ItemDto::getId).containsExactly(item.getId());
+        assertThat(found.get(0).getOwner().getName()).isEqualTo("Lucene");
+
+        itemService.update(ItemDtoForUpdate.builder().id(item.getId()).available(false).build(), owner.getId());
+
+        assertThat(itemService.search("палатк", 0L, 10L)).isEmpty();
+    }
+}
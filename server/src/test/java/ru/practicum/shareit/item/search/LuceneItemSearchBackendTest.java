@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LuceneItemSearchBackendTest {
+    @TempDir
+    Path directory;
+
+    private final ItemRepository repository = mock(ItemRepository.class);
+    private LuceneItemSearchBackend backend;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        when(repository.findSavedEventsAfter(eq(0L), any())).thenReturn(drills(1, 500));
+        when(repository.findSavedEventsAfter(eq(500L), any())).thenReturn(drills(501, 520));
+        when(repository.findAllWithOwnerByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> Item.builder().id(id).build()).collect(Collectors.toList());
+        });
+        backend = new LuceneItemSearchBackend(repository, directory, Duration.ofMinutes(1));
+        backend.open();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        backend.close();
+    }
+
+    @Test
+    public void testIndexIsBuiltInBatchesById() {
+        assertThat(backend.size()).isEqualTo(520);
+        assertThat(backend.search("дрель", PageRequest.of(0, 1000))).hasSize(520);
+    }
+
+    @Test
+    public void testItemsSavedDuringRebuildSurviveTheSwap() throws IOException {
+        when(repository.findSavedEventsAfter(eq(500L), any())).thenAnswer(invocation -> {
+            backend.onItemSaved(new ItemSavedEvent(1L, "Стремянка", "Алюминиевая", true));
+            backend.onItemSaved(new ItemSavedEvent(600L, "Перфоратор", "Новый", true));
+            return drills(501, 520);
+        });
+
+        assertThat(backend.rebuild()).isEqualTo(521);
+
+        assertThat(backend.search("стремянка", PageRequest.of(0, 10))).extracting(Item::getId).containsExactly(1L);
+        assertThat(backend.search("перфоратор", PageRequest.of(0, 10))).extracting(Item::getId).containsExactly(600L);
+        assertThat(backend.search("дрель", PageRequest.of(0, 1000))).hasSize(519);
+    }
+
+    @Test
+    public void testItemsOfRemovedUserAreDropped() {
+        backend.onUserChanged(UserChangedEvent.removed(7L, List.of(1L, 2L), Map.of()));
+
+        assertThat(backend.size()).isEqualTo(518);
+        assertThat(backend.search("дрель", PageRequest.of(0, 1000))).extracting(Item::getId).doesNotContain(1L, 2L);
+    }
+
+    @Test
+    public void testItemsRemovedDuringRebuildStayRemoved() throws IOException {
+        when(repository.findSavedEventsAfter(eq(500L), any())).thenAnswer(invocation -> {
+            backend.onUserChanged(UserChangedEvent.removed(7L, List.of(1L), Map.of()));
+            return drills(501, 520);
+        });
+
+        assertThat(backend.rebuild()).isEqualTo(519);
+        assertThat(backend.search("дрель", PageRequest.of(0, 1000))).extracting(Item::getId).doesNotContain(1L);
+    }
+
+    @Test
+    public void testRebuildReplacesTheGenerationOnDisk() throws IOException {
+        backend.rebuild();
+
+        try (Stream<Path> children = Files.list(directory)) {
+            assertThat(children.map(child -> child.getFileName().toString())).containsExactly("index-2");
+        }
+    }
+
+    private static List<ItemSavedEvent> drills(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(id -> new ItemSavedEvent(id, "Дрель " + id, "Аккумуляторная", true))
+                .collect(Collectors.toList());
+    }
+}
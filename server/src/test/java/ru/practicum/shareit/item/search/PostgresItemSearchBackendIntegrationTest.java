@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.search;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@code postgres} backend on a real database; see {@link ru.practicum.shareit.PostgresSchemaTest} for
+ * the properties it needs.
+ */
+@SpringBootTest(properties = {
+        "spring.sql.init.platform=postgresql",
+        "shareit.search.backend=postgres",
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${shareit.postgres.url}",
+        "spring.datasource.username=${shareit.postgres.username:shareit}",
+        "spring.datasource.password=${shareit.postgres.password:}",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@EnabledIfSystemProperty(named = "shareit.postgres.url", matches = ".+")
+@Transactional
+public class PostgresItemSearchBackendIntegrationTest {
+
+    @Autowired
+    private ItemSearchBackend searchBackend;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Item drill;
+    private Item tent;
+
+    @BeforeEach
+    public void setUp() {
+        User owner = userRepository.save(User.builder().name("Owner").email("postgres-search@example.com").build());
+        drill = save(owner, "Дрель аккумуляторная", "Сверлит бетон", true);
+        tent = save(owner, "Палатка", "Подходит для похода, есть дрель-шуруповерт в комплекте", true);
+        save(owner, "Дрель ударная", "Сломана", false);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testWordsMatchAsPrefixesRankedByName() {
+        assertThat(searchBackend).isInstanceOf(PostgresItemSearchBackend.class);
+
+        assertThat(searchBackend.search("дрел", PageRequest.of(0, 10)))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId(), tent.getId());
+        assertThat(searchBackend.search("ДРЕЛЬ акку", PageRequest.of(0, 10)))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId());
+    }
+
+    @Test
+    public void testTextInsideWordDoesNotMatch() {
+        assertThat(searchBackend.search("рель", PageRequest.of(0, 10))).isEmpty();
+        assertThat(searchBackend.search("латка", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    public void testPageIsReadWithoutCount() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Slice<Item> first = searchBackend.search("дрел", PageRequest.of(0, 1));
+
+        assertThat(first.getContent()).extracting(Item::getId).containsExactly(drill.getId());
+        assertThat(first.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Item save(User owner, String name, String description, boolean available) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(owner)
+                .build());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostgresItemSearchBackendTest {
+    private final ItemRepository repository = mock(ItemRepository.class);
+    private final PostgresItemSearchBackend backend = new PostgresItemSearchBackend(repository);
+
+    @Test
+    public void testWordsBecomePrefixTerms() {
+        assertThat(PostgresItemSearchBackend.toTsQuery("Дрель  аккумуляторная!")).isEqualTo("Дрель:* & аккумуляторная:*");
+        assertThat(PostgresItemSearchBackend.toTsQuery("a&b|c:*")).isEqualTo("a:* & b:* & c:*");
+    }
+
+    @Test
+    public void testSearchPassesTsQueryToRepository() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        Page<Item> page = new PageImpl<>(List.of(Item.builder().id(1L).build()));
+        when(repository.searchFullText(eq("Дрель:*"), any())).thenReturn(page);
+
+        assertThat(backend.search("Дрель", pageable)).isSameAs(page);
+    }
+
+    @Test
+    public void testSearchWithoutWordsSkipsQuery() {
+        assertThat(backend.search("!?", PageRequest.of(0, 10))).isEmpty();
+        verify(repository, never()).searchFullText(anyString(), any());
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingChangedEvent;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.user.UserChangedEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ItemSuggestionIndexTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private ItemSuggestionIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        when(itemRepository.findAllAvailableNames()).thenReturn(List.of(name(1L, "Дрель"), name(2L, "Домкрат")));
+        when(bookingRepository.countBookingsByItem()).thenReturn(List.of(count(1L, 5L), count(2L, 3L)));
+        index = new ItemSuggestionIndex(itemRepository, bookingRepository);
+        index.load();
+    }
+
+    @Test
+    public void testItemShownAgainKeepsItsBookingRank() {
+        index.onItemSaved(new ItemSavedEvent(1L, "Дрель", "", false));
+        assertThat(suggestedIds("д")).containsExactly(2L);
+
+        index.onItemSaved(new ItemSavedEvent(1L, "Дрель", "", true));
+
+        assertThat(suggestedIds("д")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void testBookingsOfHiddenItemAreCounted() {
+        index.onItemSaved(new ItemSavedEvent(2L, "Домкрат", "", false));
+        for (int i = 0; i < 3; i++) {
+            index.onBookingChanged(new BookingChangedEvent((long) i, 2L, 10L, 20L, null, null, BookingStatus.WAITING));
+        }
+
+        index.onItemSaved(new ItemSavedEvent(2L, "Домкрат", "", true));
+
+        assertThat(suggestedIds("д")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testItemsOfRemovedUserAreDropped() {
+        index.onUserChanged(UserChangedEvent.removed(7L, List.of(1L), Map.of()));
+
+        assertThat(suggestedIds("д")).containsExactly(2L);
+    }
+
+    @Test
+    public void testItemHiddenDuringLoadStaysHidden() throws InterruptedException {
+        Thread hide = new Thread(() -> index.onItemSaved(new ItemSavedEvent(1L, "Дрель", "", false)));
+        when(itemRepository.findAllAvailableNames()).thenAnswer(invocation -> {
+            hide.start();
+            hide.join(200);
+            return List.of(name(1L, "Дрель"), name(2L, "Домкрат"));
+        });
+        index = new ItemSuggestionIndex(itemRepository, bookingRepository);
+
+        index.load();
+        hide.join();
+
+        assertThat(suggestedIds("д")).containsExactly(2L);
+    }
+
+    private List<Long> suggestedIds(String prefix) {
+        return index.suggest(prefix, 10).stream().map(ItemSuggestionDto::getId).collect(Collectors.toList());
+    }
+
+    private static ItemNameView name(Long id, String name) {
+        return new ItemNameView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static ItemBookingCount count(Long itemId, Long bookings) {
+        return new ItemBookingCount() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getBookings() {
+                return bookings;
+            }
+        };
+    }
+}
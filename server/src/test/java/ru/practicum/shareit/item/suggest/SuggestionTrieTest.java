@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuggestionTrieTest {
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    public void setUp() {
+        trie = new SuggestionTrie(3);
+        trie.put(1L, "Дрель", 5);
+        trie.put(2L, "Дрель ударная", 9);
+        trie.put(3L, "Ударный шуруповерт", 1);
+        trie.put(4L, "Доска", 7);
+        trie.put(5L, "Дрезина", 0);
+    }
+
+    @Test
+    public void testHeaviestEntriesComeFirst() {
+        assertThat(ids("д", 10)).containsExactly(2L, 4L, 1L);
+        assertThat(ids("др", 10)).containsExactly(2L, 1L, 5L);
+        assertThat(ids("дре", 2)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testEveryWordOfTheNameIsAPrefix() {
+        assertThat(ids("удар", 10)).containsExactly(2L, 3L);
+        assertThat(ids("шуруп", 10)).containsExactly(3L);
+    }
+
+    @Test
+    public void testLookupIsCaseInsensitive() {
+        assertThat(ids("ДРЕЛЬ", 10)).containsExactly(2L, 1L);
+        assertThat(ids("  доС", 10)).containsExactly(4L);
+    }
+
+    @Test
+    public void testRenameReplacesOldKeys() {
+        trie.put(4L, "Стремянка", trie.weight(4L));
+
+        assertThat(ids("доск", 10)).isEmpty();
+        assertThat(ids("стрем", 10)).containsExactly(4L);
+        assertThat(ids("д", 10)).containsExactly(2L, 1L, 5L);
+    }
+
+    @Test
+    public void testWeightChangeReordersTop() {
+        trie.addWeight(5L, 100);
+
+        assertThat(ids("д", 10)).containsExactly(5L, 2L, 4L);
+    }
+
+    @Test
+    public void testRemoveDropsEntryAndEmptyBranches() {
+        trie.remove(3L);
+        trie.remove(2L);
+
+        assertThat(ids("удар", 10)).isEmpty();
+        assertThat(ids("шуруп", 10)).isEmpty();
+        assertThat(trie.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testUnknownOrBlankPrefixFindsNothing() {
+        assertThat(ids("молоток", 10)).isEmpty();
+        assertThat(ids("  ", 10)).isEmpty();
+        assertThat(ids(null, 10)).isEmpty();
+    }
+
+    @Test
+    public void testPrefixLongerThanKeyIsFilteredByName() {
+        String longName = "Очень длинное название предмета для проверки";
+        trie.put(6L, longName, 1);
+        trie.put(7L, "Очень длинное название предмета без проверки", 2);
+
+        assertThat(ids("очень длинное название предмета для", 10)).containsExactly(6L);
+    }
+
+    private List<Long> ids(String prefix, int limit) {
+        return trie.top(prefix, limit).stream().map(entry -> entry.id).collect(Collectors.toList());
+    }
+}
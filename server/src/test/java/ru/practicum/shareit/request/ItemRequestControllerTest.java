@@ -8,8 +8,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.Constants;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestForDto;
+import ru.practicum.shareit.request.match.RequestMatchSubscriptions;
 import ru.practicum.shareit.request.service.RequestService;
 
 import java.time.LocalDateTime;
@@ -21,7 +24,9 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemRequestController.class)
@@ -33,6 +38,9 @@ public class ItemRequestControllerTest {
     @MockBean
     private RequestService requestService;
 
+    @MockBean
+    private RequestMatchSubscriptions matchSubscriptions;
+
     private ItemRequestDto requestDto;
     private ItemRequestForDto requestForGetDto;
 
@@ -97,6 +105,31 @@ public class ItemRequestControllerTest {
         verify(requestService, times(1)).getAll(anyLong(), anyLong(), anyLong());
     }
 
+    @Test
+    void testGetAllAfterReturnsNextCursorForFullPage() throws Exception {
+        String cursor = new RequestCursor(LocalDateTime.of(2030, 1, 1, 0, 0), 5L).encode();
+        when(requestService.getAllAfter(cursor, 1L, 1L)).thenReturn(List.of(requestDto));
+
+        mockMvc.perform(get("/requests/all")
+                        .param("after", cursor)
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(requestDto.getId()))
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, RequestCursor.of(requestDto).encode()));
+    }
+
+    @Test
+    void testSubscribeToMatchesStartsEventStream() throws Exception {
+        when(matchSubscriptions.subscribe(1L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/requests/matches")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted());
+
+        verify(matchSubscriptions).subscribe(1L);
+    }
+
     @Test
     void testGetById() throws Exception {
         when(requestService.getById(anyLong(), anyLong())).thenReturn(requestForGetDto);
@@ -5,7 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import ru.practicum.shareit.user.User;
@@ -64,7 +64,7 @@ public class RequestRepositoryTest {
 
     @Test
     public void testGetAllRequests() {
-        Page<ItemRequest> requestsPage = requestRepository.getAllRequests(requester.getId(), PageRequest.of(0, 10));
+        Slice<ItemRequest> requestsPage = requestRepository.getAllRequests(requester.getId(), PageRequest.of(0, 10));
         List<ItemRequest> requests = requestsPage.getContent();
         assertThat(requests).hasSize(1);
         assertThat(requests.get(0)).isEqualTo(anotherItemRequest);
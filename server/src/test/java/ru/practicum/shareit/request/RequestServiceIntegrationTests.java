@@ -1,21 +1,35 @@
 package ru.practicum.shareit.request;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestForDto;
+import ru.practicum.shareit.request.feed.FeedPage;
+import ru.practicum.shareit.request.feed.RequestFeed;
 import ru.practicum.shareit.request.service.RequestServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Transactional
 public class RequestServiceIntegrationTests {
 
@@ -28,6 +42,68 @@ public class RequestServiceIntegrationTests {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private RequestFeed feed;
+
+    @Test
+    public void testGetAllPageIsLoadedWithTwoStatements() {
+        UserDto viewer = userService.add(new UserDto(null, "Viewer", "viewer@example.com"));
+        User owner = User.builder().id(viewer.getId()).name(viewer.getName()).email(viewer.getEmail()).build();
+        for (int i = 0; i < 10; i++) {
+            UserDto requesterDto = userService.add(new UserDto(null, "Requester " + i, "requester" + i + "@example.com"));
+            User requester = new User(requesterDto.getId(), requesterDto.getName(), requesterDto.getEmail());
+            ItemRequest request = requestRepository.save(ItemRequest.builder()
+                    .description("Request " + i)
+                    .requester(requester)
+                    .created(LocalDateTime.now().minusMinutes(i))
+                    .build());
+            for (int j = 0; j < i % 3; j++) {
+                itemRepository.save(Item.builder()
+                        .name("Item " + i + "-" + j)
+                        .description("Answer")
+                        .available(true)
+                        .owner(owner)
+                        .request(request)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // rows saved here bypass the feed, so the page is read from the database
+        when(feed.page(any(), any(), anyLong(), anyInt())).thenReturn(new FeedPage(List.of(), false, null));
+
+        List<ItemRequestDto> result = requestService.getAll(0L, 10L, viewer.getId());
+
+        assertEquals(10, result.size());
+        assertEquals("Requester 0", result.get(0).getRequester().getName());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 3, result.get(i).getItems().size());
+        }
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testAddKeepsCreatedAtColumnPrecision() {
+        UserDto requester = userService.add(new UserDto(null, "Requester", "precision@example.com"));
+        ItemRequestDto request = new ItemRequestDto();
+        request.setDescription("Need a drill");
+
+        ItemRequestDto saved = requestService.add(request, requester.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(0, saved.getCreated().getNano() % 1000);
+        assertEquals(saved.getCreated(), requestRepository.findById(saved.getId()).orElseThrow().getCreated());
+    }
+
     @Test
     public void testGetById() {
         UserDto userDto = new UserDto(null, "Test User", "testuser@example.com");
@@ -5,18 +5,23 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestForDto;
+import ru.practicum.shareit.request.feed.FeedPage;
+import ru.practicum.shareit.request.feed.RequestFeed;
 import ru.practicum.shareit.request.service.RequestServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.ValidationException;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -25,7 +30,11 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class RequestServiceUnitTests {
@@ -39,6 +48,12 @@ public class RequestServiceUnitTests {
     @Mock
     private ItemService itemService;
 
+    @Mock
+    private RequestFeed feed;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RequestServiceImpl requestService;
 
@@ -65,6 +80,7 @@ public class RequestServiceUnitTests {
         ItemRequestDto result = requestService.add(requestDto, userId);
 
         assertThat(result).isNotNull();
+        verify(eventPublisher).publishEvent(any(RequestCreatedEvent.class));
     }
 
     @Test
@@ -73,7 +89,7 @@ public class RequestServiceUnitTests {
         List<ItemRequest> requests = Collections.singletonList(new ItemRequest());
         when(userService.getById(userId)).thenReturn(UserDto.builder().id(userId).name("John Doe").email("john.doe@example.com").build());
         when(requestRepository.findAllByRequesterIdOrderByCreatedDesc(userId)).thenReturn(requests);
-        when(itemService.getAllByRequestId(anyLong())).thenReturn(Collections.emptyList());
+        when(itemService.getAllByRequestIds(anyCollection())).thenReturn(Collections.emptyMap());
 
         List<ItemRequestForDto> result = requestService.getByUser(userId);
 
@@ -82,15 +98,29 @@ public class RequestServiceUnitTests {
     }
 
     @Test
-    public void testGetAll() {
+    public void testGetAllIsServedFromFeed() {
+        Long userId = 1L;
+        ItemRequestDto request = ItemRequestDto.builder().id(5L).description("Request").build();
+        when(feed.page(userId, null, 0, 10)).thenReturn(new FeedPage(List.of(request), true, null));
+        when(itemService.getAllByRequestIds(anyCollection())).thenReturn(Collections.emptyMap());
+
+        List<ItemRequestDto> result = requestService.getAll(0L, 10L, userId);
+
+        assertThat(result).extracting(ItemRequestDto::getId).containsExactly(5L);
+        assertThat(result.get(0).getItems()).isEmpty();
+        verifyNoInteractions(requestRepository);
+    }
+
+    @Test
+    public void testGetAllPastFeedUsesOffsetQuery() {
         Long userId = 1L;
-        Long from = 0L;
+        Long from = 20L;
         Long size = 10L;
-        int page = 0;
-        Pageable pageable = PageRequest.of(page, size.intValue());
+        Pageable pageable = PageRequest.of(2, size.intValue());
         Page<ItemRequest> pageRequests = new PageImpl<>(Collections.singletonList(new ItemRequest()));
+        when(feed.page(userId, null, 20, 10)).thenReturn(new FeedPage(List.of(), false, new RequestCursor(LocalDateTime.now(), 3L)));
         when(requestRepository.getAllRequests(userId, pageable)).thenReturn(pageRequests);
-        when(itemService.getAllByRequestId(anyLong())).thenReturn(Collections.emptyList());
+        when(itemService.getAllByRequestIds(anyCollection())).thenReturn(Collections.emptyMap());
 
         List<ItemRequestDto> result = requestService.getAll(from, size, userId);
 
@@ -98,6 +128,30 @@ public class RequestServiceUnitTests {
         assertThat(result.get(0).getItems()).isEmpty();
     }
 
+    @Test
+    public void testGetAllAfterContinuesFromDatabaseWhereFeedEnds() {
+        Long userId = 1L;
+        LocalDateTime oldest = LocalDateTime.now().minusDays(1);
+        ItemRequestDto fromFeed = ItemRequestDto.builder().id(5L).build();
+        ItemRequest fromDatabase = ItemRequest.builder().id(2L).build();
+        String after = new RequestCursor(LocalDateTime.now(), 6L).encode();
+        when(feed.page(eq(userId), any(RequestCursor.class), eq(0L), eq(3)))
+                .thenReturn(new FeedPage(List.of(fromFeed), false, new RequestCursor(oldest, 5L)));
+        when(requestRepository.getAllRequestsAfter(userId, oldest, 5L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(fromDatabase)));
+        when(itemService.getAllByRequestIds(anyCollection())).thenReturn(Collections.emptyMap());
+
+        List<ItemRequestDto> result = requestService.getAllAfter(after, 3L, userId);
+
+        assertThat(result).extracting(ItemRequestDto::getId).containsExactly(5L, 2L);
+    }
+
+    @Test
+    public void testGetAllAfterThrowsExceptionForBrokenCursor() {
+        assertThatThrownBy(() -> requestService.getAllAfter("###", 10L, 1L))
+                .isInstanceOf(ValidationException.class);
+    }
+
     @Test
     public void testGetAllWithNegativePaginationParameters() {
         Long userId = 1L;
@@ -116,7 +170,7 @@ public class RequestServiceUnitTests {
         request.setId(requestId);
         when(userService.getById(userId)).thenReturn(userDto);
         when(requestRepository.findById(requestId)).thenReturn(Optional.of(request));
-        when(itemService.getAllByRequestId(anyLong())).thenReturn(Collections.emptyList());
+        when(itemService.getAllByRequestIds(anyCollection())).thenReturn(Collections.emptyMap());
 
         ItemRequestForDto result = requestService.getById(requestId, userId);
 
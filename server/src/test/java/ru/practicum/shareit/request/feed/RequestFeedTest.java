@@ -0,0 +1,171 @@
+package ru.practicum.shareit.request.feed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.RequestCreatedEvent;
+import ru.practicum.shareit.request.RequestCursor;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestFeedTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final UserDto ALICE = new UserDto(1L, "Alice", "alice@example.com");
+    private static final UserDto BOB = new UserDto(2L, "Bob", "bob@example.com");
+
+    private final RequestRepository repository = mock(RequestRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final RequestFeed feed = new RequestFeed(repository, userService, 4);
+
+    @BeforeEach
+    public void setUp() {
+        when(userService.getById(ALICE.getId())).thenReturn(ALICE);
+        when(userService.getById(BOB.getId())).thenReturn(BOB);
+    }
+
+    @Test
+    public void testPageIsFilteredByRequesterAndOrderedNewestFirst() {
+        add(1L, 1, ALICE);
+        add(2L, 2, BOB);
+        add(3L, 3, ALICE);
+
+        FeedPage page = feed.page(BOB.getId(), null, 0, 2);
+
+        assertThat(ids(page)).containsExactly(3L, 1L);
+        assertThat(page.isComplete()).isTrue();
+    }
+
+    @Test
+    public void testOutOfOrderCommitIsPlacedByCreated() {
+        add(1L, 1, ALICE);
+        add(3L, 3, ALICE);
+        add(2L, 2, ALICE);
+
+        assertThat(ids(feed.page(BOB.getId(), null, 0, 3))).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    public void testOldestRequestIsEvictedWhenFull() {
+        for (long id = 1; id <= 5; id++) {
+            add(id, (int) id, ALICE);
+        }
+
+        FeedPage page = feed.page(BOB.getId(), null, 0, 10);
+
+        assertThat(feed.size()).isEqualTo(4);
+        assertThat(ids(page)).containsExactly(5L, 4L, 3L, 2L);
+        assertThat(page.isComplete()).isFalse();
+        assertThat(page.getResumeAfter().getId()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testRequestOlderThanFullRingIsDropped() {
+        for (long id = 2; id <= 5; id++) {
+            add(id, (int) id, ALICE);
+        }
+        add(1L, 1, ALICE);
+
+        assertThat(ids(feed.page(BOB.getId(), null, 0, 10))).containsExactly(5L, 4L, 3L, 2L);
+    }
+
+    @Test
+    public void testPageAfterCursorAndOffset() {
+        for (long id = 1; id <= 4; id++) {
+            add(id, (int) id, ALICE);
+        }
+
+        assertThat(ids(feed.page(BOB.getId(), new RequestCursor(NOW.plusMinutes(3), 3L), 0, 1))).containsExactly(2L);
+        assertThat(ids(feed.page(BOB.getId(), null, 1, 2))).containsExactly(3L, 2L);
+    }
+
+    @Test
+    public void testCursorDeeperThanRingResumesFromCursor() {
+        add(5L, 5, ALICE);
+        RequestCursor deep = new RequestCursor(NOW, 1L);
+
+        FeedPage page = feed.page(BOB.getId(), deep, 0, 10);
+
+        assertThat(page.getRequests()).isEmpty();
+        assertThat(page.isComplete()).isFalse();
+        assertThat(page.getResumeAfter()).isSameAs(deep);
+    }
+
+    @Test
+    public void testEmptyFeedResumesFromNewest() {
+        FeedPage page = feed.page(BOB.getId(), null, 0, 10);
+
+        assertThat(page.isComplete()).isFalse();
+        assertThat(page.getResumeAfter()).isNull();
+    }
+
+    @Test
+    public void testShortPageIsCompleteWhenRingHoldsWholeTable() {
+        when(repository.findRecent(any())).thenReturn(List.of(request(2L, 2, ALICE), request(1L, 1, BOB)));
+        feed.load();
+        add(3L, 3, ALICE);
+
+        FeedPage page = feed.page(BOB.getId(), null, 0, 10);
+
+        assertThat(ids(page)).containsExactly(3L, 2L);
+        assertThat(page.isComplete()).isTrue();
+        assertThat(feed.page(BOB.getId(), new RequestCursor(NOW.plusMinutes(2), 2L), 0, 10).isComplete()).isTrue();
+
+        add(4L, 4, ALICE);
+        add(5L, 5, ALICE);
+        assertThat(feed.page(BOB.getId(), null, 0, 10).isComplete()).isFalse();
+    }
+
+    @Test
+    public void testRequesterIsResolvedWhenServed() {
+        add(1L, 1, ALICE);
+        UserDto renamed = new UserDto(ALICE.getId(), "Alice Smith", ALICE.getEmail());
+        when(userService.getById(ALICE.getId())).thenReturn(renamed);
+
+        assertThat(feed.page(BOB.getId(), null, 0, 1).getRequests().get(0).getRequester()).isSameAs(renamed);
+    }
+
+    @Test
+    public void testRequestsOfRemovedUserLeaveTheRing() {
+        add(1L, 1, ALICE);
+        add(2L, 2, BOB);
+        add(3L, 3, ALICE);
+        add(4L, 4, BOB);
+
+        feed.onUserChanged(UserChangedEvent.removed(ALICE.getId(), List.of(), Map.of()));
+        add(5L, 5, BOB);
+
+        assertThat(feed.size()).isEqualTo(3);
+        assertThat(ids(feed.page(ALICE.getId(), null, 0, 10))).containsExactly(5L, 4L, 2L);
+    }
+
+    private void add(Long id, int minutes, UserDto requester) {
+        feed.onRequestCreated(new RequestCreatedEvent(id, "Request " + id, NOW.plusMinutes(minutes), requester));
+    }
+
+    private static ItemRequest request(Long id, int minutes, UserDto requester) {
+        return ItemRequest.builder()
+                .id(id)
+                .description("Request " + id)
+                .created(NOW.plusMinutes(minutes))
+                .requester(User.builder().id(requester.getId()).build())
+                .build();
+    }
+
+    private static List<Long> ids(FeedPage page) {
+        return page.getRequests().stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
+}
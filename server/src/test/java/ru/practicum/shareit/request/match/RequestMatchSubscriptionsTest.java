@@ -0,0 +1,107 @@
+package ru.practicum.shareit.request.match;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class RequestMatchSubscriptionsTest {
+    private final UserService userService = mock(UserService.class);
+    private final RequestMatchSubscriptions subscriptions = new RequestMatchSubscriptions(userService,
+            Duration.ofMinutes(1), RequestMatchSubscriptions.MAX_PENDING, 1, Duration.ofSeconds(10));
+
+    @AfterEach
+    public void tearDown() {
+        subscriptions.close();
+    }
+
+    @Test
+    public void testPendingMatchesAreKeptUntilSubscribe() {
+        for (int i = 0; i < RequestMatchSubscriptions.MAX_PENDING + 5; i++) {
+            subscriptions.onRequestMatched(match(1L, (long) i));
+        }
+        assertThat(subscriptions.pendingCount(1L)).isEqualTo(RequestMatchSubscriptions.MAX_PENDING);
+
+        subscriptions.subscribe(1L);
+
+        assertThat(subscriptions.pendingCount(1L)).isZero();
+        assertThat(subscriptions.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testClosedStreamIsDroppedAndLaterMatchesQueued() throws InterruptedException {
+        SseEmitter emitter = subscriptions.subscribe(1L);
+        emitter.complete();
+
+        subscriptions.onRequestMatched(match(1L, 10L));
+        awaitNoSubscribers();
+        subscriptions.onRequestMatched(match(1L, 11L));
+
+        assertThat(subscriptions.pendingCount(1L)).isEqualTo(1);
+        subscriptions.subscribe(1L);
+        assertThat(subscriptions.pendingCount(1L)).isZero();
+    }
+
+    @Test
+    public void testSlowStreamDoesNotBlockPublisher() throws InterruptedException {
+        SseEmitter emitter = subscriptions.subscribe(1L);
+        Thread publisher = new Thread(() -> {
+            for (long id = 1; id <= RequestMatchSubscriptions.MAX_PENDING + 2; id++) {
+                subscriptions.onRequestMatched(match(1L, id));
+            }
+        });
+        // the sender thread blocks on the emitter's monitor in send, as it would on a client that does not read
+        synchronized (emitter) {
+            publisher.start();
+            publisher.join(5_000);
+
+            assertThat(publisher.isAlive()).isFalse();
+            // the stream overflowed and was closed, so the last matches wait for the next subscribe
+            assertThat(subscriptions.pendingCount(1L)).isPositive();
+        }
+    }
+
+    @Test
+    public void testUnknownUserCannotSubscribe() {
+        doThrow(new NoSuchElementException("Юзера с таким ID не существует")).when(userService).checkExists(99L);
+
+        assertThatThrownBy(() -> subscriptions.subscribe(99L)).isInstanceOf(NoSuchElementException.class);
+        assertThat(subscriptions.subscriberCount()).isZero();
+    }
+
+    @Test
+    public void testRemovedUserIsForgotten() throws InterruptedException {
+        subscriptions.onRequestMatched(match(1L, 10L));
+        subscriptions.subscribe(2L);
+        assertThat(subscriptions.subscriberCount()).isEqualTo(2);
+
+        subscriptions.onUserChanged(UserChangedEvent.removed(1L, List.of(), Map.of()));
+        subscriptions.onUserChanged(UserChangedEvent.removed(2L, List.of(), Map.of()));
+
+        awaitNoSubscribers();
+    }
+
+    private void awaitNoSubscribers() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (subscriptions.subscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(subscriptions.subscriberCount()).isZero();
+    }
+
+    private static RequestMatchEvent match(Long requesterId, Long requestId) {
+        return new RequestMatchEvent(requesterId, new RequestMatchDto(requestId, 100L, "Дрель", "Дрель", false));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.request.match;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestCreatedEvent;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserChangedEvent;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class RequestMatcherTest {
+    private static final User OWNER = User.builder().id(1L).name("Owner").email("owner@example.com").build();
+    private static final UserDto REQUESTER = new UserDto(2L, "Requester", "requester@example.com");
+
+    private final RequestMatcher matcher = new RequestMatcher(mock(RequestRepository.class));
+
+    @Test
+    public void testItemMatchesRequestsSharingTermsBestFirst() {
+        open(10L, REQUESTER, "Нужна дрель для ремонта");
+        open(11L, REQUESTER, "Ищу дрель и перфоратор");
+        open(12L, REQUESTER, "Нужна палатка");
+
+        List<RequestMatchEvent> matches = matcher.match(item("Дрель-перфоратор", "Мощная дрель", null));
+
+        assertThat(requestIds(matches)).containsExactly(11L, 10L);
+        assertThat(matches.get(0).getRequesterId()).isEqualTo(REQUESTER.getId());
+        assertThat(matches.get(0).getMatch().isExplicit()).isFalse();
+    }
+
+    @Test
+    public void testFillerWordsAndWordFormsAreNormalized() {
+        open(10L, REQUESTER, "Нужна дрель");
+
+        assertThat(requestIds(matcher.match(item("Дрели", "Две дрели в аренду", null)))).containsExactly(10L);
+        assertThat(matcher.match(item("Стол", "Нужна помощь", null))).isEmpty();
+    }
+
+    @Test
+    public void testOwnRequestsAndUnavailableItemsAreNotMatched() {
+        open(10L, new UserDto(OWNER.getId(), OWNER.getName(), OWNER.getEmail()), "Нужна дрель");
+        open(11L, REQUESTER, "Нужна дрель");
+
+        assertThat(requestIds(matcher.match(item("Дрель", "Дрель", null)))).containsExactly(11L);
+        Item unavailable = item("Дрель", "Дрель", null);
+        unavailable.setAvailable(false);
+        assertThat(matcher.match(unavailable)).isEmpty();
+    }
+
+    @Test
+    public void testExplicitAnswerIsMatchedOnceAndClosesRequest() {
+        open(10L, REQUESTER, "Нужна дрель");
+        ItemRequest request = ItemRequest.builder()
+                .id(10L)
+                .requester(User.builder().id(REQUESTER.getId()).build())
+                .build();
+
+        List<RequestMatchEvent> matches = matcher.match(item("Дрель", "Дрель", request));
+        assertThat(requestIds(matches)).containsExactly(10L);
+        assertThat(matches.get(0).getMatch().isExplicit()).isTrue();
+
+        matcher.onRequestMatched(matches.get(0));
+
+        assertThat(matcher.size()).isZero();
+        assertThat(matcher.match(item("Дрель", "Дрель", null))).isEmpty();
+    }
+
+    @Test
+    public void testRequestsOfRemovedUserAreDropped() {
+        open(10L, REQUESTER, "Нужна дрель");
+        open(11L, new UserDto(3L, "Other", "other@example.com"), "Нужна дрель");
+
+        matcher.onUserChanged(UserChangedEvent.removed(REQUESTER.getId(), List.of(), Map.of()));
+
+        assertThat(matcher.size()).isEqualTo(1);
+        assertThat(requestIds(matcher.match(item("Дрель", "Дрель", null)))).containsExactly(11L);
+    }
+
+    private void open(Long id, UserDto requester, String description) {
+        matcher.onRequestCreated(new RequestCreatedEvent(id, description, LocalDateTime.now(), requester));
+    }
+
+    private static Item item(String name, String description, ItemRequest request) {
+        return Item.builder().id(100L).name(name).description(description).available(true).owner(OWNER).request(request).build();
+    }
+
+    private static List<Long> requestIds(List<RequestMatchEvent> matches) {
+        return matches.stream().map(RequestMatchEvent::getMatch).map(RequestMatchDto::getRequestId).collect(Collectors.toList());
+    }
+}
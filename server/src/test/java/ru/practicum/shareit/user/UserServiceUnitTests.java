@@ -1,16 +1,22 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.index.BookingInterval;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoForUpdate;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -24,6 +30,12 @@ public class UserServiceUnitTests {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserCache userCache = new UserCache(mock(UserRepository.class), new SimpleMeterRegistry(), 100);
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -40,6 +52,7 @@ public class UserServiceUnitTests {
                 .build();
 
         User user = User.builder()
+                .id(1L)
                 .name("John Doe")
                 .email("john.doe@example.com")
                 .build();
@@ -50,6 +63,9 @@ public class UserServiceUnitTests {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo(userDto.getName());
         assertThat(result.getEmail()).isEqualTo(userDto.getEmail());
+        assertThat(userCache.isKnown(1L)).isTrue();
+        assertThat(userService.getById(1L)).isSameAs(result);
+        verify(userRepository, never()).findById(1L);
     }
 
     @Test
@@ -98,10 +114,18 @@ public class UserServiceUnitTests {
         Long userId = 1L;
 
         doNothing().when(userRepository).deleteById(userId);
+        when(userRepository.findOwnedItemIds(userId)).thenReturn(List.of(5L));
+        BookingInterval booking = mock(BookingInterval.class);
+        when(booking.getId()).thenReturn(7L);
+        when(booking.getItemId()).thenReturn(6L);
+        when(userRepository.findBookingIntervals(userId)).thenReturn(List.of(booking));
 
+        userCache.added(UserDto.builder().id(userId).name("John Doe").email("john.doe@example.com").build());
         userService.remove(userId);
 
         verify(userRepository, times(1)).deleteById(userId);
+        assertThat(userCache.isKnown(userId)).isFalse();
+        verify(eventPublisher).publishEvent(UserChangedEvent.removed(userId, List.of(5L), Map.of(7L, 6L)));
     }
 
     @Test
@@ -149,4 +173,26 @@ public class UserServiceUnitTests {
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Юзера с таким ID не существует");
     }
+
+    @Test
+    public void testCheckExistsUsesKnownIdsBeforeDatabase() {
+        userCache.added(UserDto.builder().id(1L).name("John Doe").email("john.doe@example.com").build());
+        when(userRepository.existsById(2L)).thenReturn(true);
+
+        userService.checkExists(1L);
+        userService.checkExists(2L);
+        userService.checkExists(2L);
+
+        verify(userRepository, never()).existsById(1L);
+        verify(userRepository, times(1)).existsById(2L);
+    }
+
+    @Test
+    public void testCheckExistsThrowsExceptionWhenUserNotFound() {
+        when(userRepository.existsById(3L)).thenReturn(false);
+
+        assertThatThrownBy(() -> userService.checkExists(3L))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("Юзера с таким ID не существует");
+    }
 }
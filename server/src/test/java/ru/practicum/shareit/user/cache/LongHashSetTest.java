@@ -0,0 +1,51 @@
+package ru.practicum.shareit.user.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LongHashSetTest {
+
+    @Test
+    public void testAddContainsRemove() {
+        LongHashSet set = new LongHashSet(4);
+
+        assertThat(set.add(7L)).isTrue();
+        assertThat(set.add(7L)).isFalse();
+        assertThat(set.contains(7L)).isTrue();
+        assertThat(set.contains(8L)).isFalse();
+        assertThat(set.remove(7L)).isTrue();
+        assertThat(set.remove(7L)).isFalse();
+        assertThat(set.size()).isZero();
+    }
+
+    @Test
+    public void testMatchesHashSetUnderRandomChangesAndGrowth() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long value = 1 + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertThat(set.add(value)).isEqualTo(expected.add(value));
+            } else {
+                assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long value = 1; value <= 2_000; value++) {
+            assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+        }
+    }
+
+    @Test
+    public void testRejectsNonPositiveValues() {
+        assertThatThrownBy(() -> new LongHashSet(4).add(0L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}